@@ -11,6 +11,7 @@ import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
 
 import jakarta.annotation.PostConstruct;
 
@@ -22,6 +23,12 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.uri}")
     private String mongoUri;
     
+    @Value("${idempotency.ttl-hours:24}")
+    private long idempotencyTtlHours;
+    
+    @Value("${request.broadcast.claim-ttl-hours:24}")
+    private long broadcastClaimTtlHours;
+    
     @Override
     @NonNull
     protected String getDatabaseName() {
@@ -42,10 +49,33 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
             database.getCollection("mechanic_shops")
                     .createIndex(new Document("location", "2dsphere"));
             
+            // Compound geo indexes for filtered nearby search (see MechanicShop)
+            database.getCollection("mechanic_shops")
+                    .createIndex(new Document("location", "2dsphere").append("shopTypes", 1).append("isAvailable", 1),
+                            new IndexOptions().name("location_shopTypes_isAvailable"));
+            database.getCollection("mechanic_shops")
+                    .createIndex(new Document("location", "2dsphere").append("serviceTags", 1).append("isAvailable", 1),
+                            new IndexOptions().name("location_serviceTags_isAvailable"));
+            
             // Create geospatial index for repairRequest clientLocation
             database.getCollection("repairRequest")
                     .createIndex(new Document("clientLocation", "2dsphere"));
             
+            // Expiry sweep: PENDING requests oldest first
+            database.getCollection("repairRequest")
+                    .createIndex(new Document("status", 1).append("createdAt", 1),
+                            new IndexOptions().name("status_createdAt"));
+            
+            // Idempotency keys expire on their own once clients stop retrying
+            database.getCollection("idempotency_keys")
+                    .createIndex(new Document("createdAt", 1),
+                            new IndexOptions().name("createdAt_ttl").expireAfter(idempotencyTtlHours, java.util.concurrent.TimeUnit.HOURS));
+            
+            // Broadcast claims only matter while the siblings are pending
+            database.getCollection("broadcast_claims")
+                    .createIndex(new Document("createdAt", 1),
+                            new IndexOptions().name("createdAt_ttl").expireAfter(broadcastClaimTtlHours, java.util.concurrent.TimeUnit.HOURS));
+            
             log.info("MongoDB geospatial indexes created successfully");
         } catch (Exception e) {
             log.error("Failed to create MongoDB indexes: {}", e.getMessage());
@@ -3,18 +3,38 @@ package com.roadside.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+
+import com.roadside.service.LocationBroadcastCoalescer;
+import com.roadside.service.LocationIngestService;
+import com.roadside.service.RequestSchedulerService;
+
 import java.util.Map;
 import java.time.LocalDateTime;
 
 @RestController
 public class BackendTestController {
 
+    private final RequestSchedulerService requestSchedulerService;
+    private final LocationIngestService locationIngestService;
+    private final LocationBroadcastCoalescer locationBroadcastCoalescer;
+
+    public BackendTestController(RequestSchedulerService requestSchedulerService,
+                                 LocationIngestService locationIngestService,
+                                 LocationBroadcastCoalescer locationBroadcastCoalescer) {
+        this.requestSchedulerService = requestSchedulerService;
+        this.locationIngestService = locationIngestService;
+        this.locationBroadcastCoalescer = locationBroadcastCoalescer;
+    }
+
     @GetMapping({"/", "/health"})
     public ResponseEntity<Map<String, Object>> checkHealth() {
         return ResponseEntity.ok(Map.of(
             "status", "UP",
             "message", "Roadside Assistance Backend is Running",
-            "timestamp", LocalDateTime.now()
+            "timestamp", LocalDateTime.now(),
+            "expirySweep", requestSchedulerService.getMetrics(),
+            "locationIngest", locationIngestService.getMetrics(),
+            "locationBroadcast", locationBroadcastCoalescer.getMetrics()
         ));
     }
 }
@@ -3,6 +3,9 @@ package com.roadside.controller;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -10,16 +13,21 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.roadside.dto.ApiResponse;
 import com.roadside.dto.CreateRequestDTO;
 import com.roadside.dto.LocationDTO;
-import com.roadside.model.MechanicShop;
+import com.roadside.exception.IdempotencyConflictException;
+import com.roadside.exception.IdempotencyKeyMismatchException;
 import com.roadside.model.RepairRequest;
 import com.roadside.service.ClientService;
+import com.roadside.service.IdempotencyService;
+import com.roadside.service.ShopCatalogService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -31,17 +39,31 @@ import lombok.RequiredArgsConstructor;
 public class ClientController {
     
     private final ClientService clientService;
+    private final IdempotencyService idempotencyService;
     
     @GetMapping("/nearby-shops")
-    public ResponseEntity<ApiResponse<List<MechanicShop>>> getNearbyShops(
+    public ResponseEntity<ApiResponse<List<?>>> getNearbyShops(
             @RequestParam Double lat,
             @RequestParam Double lng,
             @RequestParam(required = false) Double radius,
-            @RequestParam(required = false) String shopType
+            @RequestParam(required = false) String shopType,
+            @RequestParam(defaultValue = "false") boolean openNow,
+            @RequestParam(defaultValue = "pin") String view,
+            @RequestParam(defaultValue = "false") boolean adaptive,
+            @RequestParam(required = false) Integer k
     ) {
         try {
             LocationDTO location = new LocationDTO(lat, lng);
-            List<MechanicShop> shops = clientService.getNearbyShops(location, radius, shopType);
+            List<?> shops;
+            if (adaptive) {
+                shops = "full".equalsIgnoreCase(view)
+                    ? clientService.getNearestShops(location, shopType, openNow, k)
+                    : clientService.getNearestShopPins(location, shopType, openNow, k);
+            } else {
+                shops = "full".equalsIgnoreCase(view)
+                    ? clientService.getNearbyShops(location, radius, shopType, openNow)
+                    : clientService.getNearbyShopPins(location, radius, shopType, openNow);
+            }
             return ResponseEntity.ok(ApiResponse.success(shops));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -49,10 +71,21 @@ public class ClientController {
     }
     
     @GetMapping("/all-shops")
-    public ResponseEntity<ApiResponse<List<MechanicShop>>> getAllShops() {
+    public ResponseEntity<?> getAllShops(
+            @RequestParam(defaultValue = "pin") String view,
+            WebRequest webRequest
+    ) {
         try {
-            List<MechanicShop> shops = clientService.getAllShops();
-            return ResponseEntity.ok(ApiResponse.success(shops));
+            // Served from a pre-serialized snapshot; unchanged catalogs answer 304
+            ShopCatalogService.CatalogPayload catalog = clientService.getShopCatalog("full".equalsIgnoreCase(view));
+            if (webRequest.checkNotModified(catalog.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getEtag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(catalog.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalog.getBody());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -61,12 +94,18 @@ public class ClientController {
     @PostMapping("/create-request")
     public ResponseEntity<ApiResponse<RepairRequest>> createRequest(
             @Valid @RequestBody CreateRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication
     ) {
         try {
             String clientId = authentication.getName();
-            RepairRequest repairRequest = clientService.createRequest(clientId, request);
+            RepairRequest repairRequest = idempotencyService.execute("client-request", clientId, idempotencyKey, request,
+                    () -> clientService.createRequest(clientId, request));
             return ResponseEntity.ok(ApiResponse.success("Request created successfully", repairRequest));
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -75,6 +114,7 @@ public class ClientController {
     @PostMapping("/sos")
     public ResponseEntity<ApiResponse<RepairRequest>> createSOSRequest(
             @Valid @RequestBody Map<String, Object> request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication
     ) {
         try {
@@ -88,8 +128,14 @@ public class ClientController {
             );
             String address = (String) request.get("address");
             
-            RepairRequest sosRequest = clientService.createSOSRequest(clientId, location, address);
+            // Retried SOS submits return the original request instead of alerting every shop again
+            RepairRequest sosRequest = idempotencyService.execute("sos", clientId, idempotencyKey, request,
+                    () -> clientService.createSOSRequest(clientId, location, address));
             return ResponseEntity.ok(ApiResponse.success("SOS request created", sosRequest));
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -1,19 +1,39 @@
 package com.roadside.controller;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.validation.Valid;
 
 import com.roadside.dto.ApiResponse;
+import com.roadside.dto.LocationDTO;
+import com.roadside.dto.NearbyBatchRequest;
+import com.roadside.dto.NearbyBatchResult;
+import com.roadside.dto.NearbyShopPage;
+import com.roadside.dto.ShopPin;
+import com.roadside.dto.ShopSearchCriteria;
 import com.roadside.model.MechanicShop;
 import com.roadside.repository.MechanicShopRepository;
+import com.roadside.service.ShopCatalogService;
+import com.roadside.service.ShopSearchService;
+import com.roadside.util.ServiceTags;
 
 @RestController
 @RequestMapping("/api/v1/mechanics")
@@ -22,36 +42,58 @@ public class MechanicsController {
     
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MechanicsController.class);
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final MechanicShopRepository mechanicShopRepository;
+    private final ShopSearchService shopSearchService;
+    private final ShopCatalogService shopCatalogService;
+    
+    @Value("${geospatial.max-radius}")
+    private Double maxRadius;
     
-    public MechanicsController(MechanicShopRepository mechanicShopRepository) {
+    @Value("${geospatial.batch.max-points:500}")
+    private int maxBatchPoints;
+    
+    public MechanicsController(MechanicShopRepository mechanicShopRepository, ShopSearchService shopSearchService,
+                               ShopCatalogService shopCatalogService) {
         this.mechanicShopRepository = mechanicShopRepository;
+        this.shopSearchService = shopSearchService;
+        this.shopCatalogService = shopCatalogService;
     }
     
     @GetMapping("/nearby")
-    public ResponseEntity<ApiResponse<List<MechanicShop>>> getNearbyMechanics(
+    public ResponseEntity<ApiResponse<List<?>>> getNearbyMechanics(
             @RequestParam double latitude,
             @RequestParam double longitude,
             @RequestParam(defaultValue = "20") double radiusKm,
             @RequestParam(required = false) String vehicleType,
-            @RequestParam(defaultValue = "false") boolean includeUnavailable
+            @RequestParam(defaultValue = "false") boolean includeUnavailable,
+            @RequestParam(defaultValue = "false") boolean openNow,
+            @RequestParam(defaultValue = "pin") String view,
+            @RequestParam(defaultValue = "false") boolean adaptive,
+            @RequestParam(required = false) Integer k
     ) {
         try {
             log.info("Fetching nearby mechanics - Lat: {}, Lon: {}, Radius: {}km, VehicleType: {}", 
                 latitude, longitude, radiusKm, vehicleType);
             
-            // Convert km to meters for MongoDB geospatial query
-            double radiusMeters = radiusKm * 1000;
+            // Radius is converted from km to meters
+            ShopSearchCriteria criteria = new ShopSearchCriteria(latitude, longitude, radiusKm * 1000);
+            criteria.setShopType(vehicleType);
+            criteria.setIncludeUnavailable(includeUnavailable);
+            criteria.setOpenNow(openNow);
             
-            List<MechanicShop> shops;
-            if (vehicleType != null && !vehicleType.isEmpty()) {
-                shops = includeUnavailable
-                    ? mechanicShopRepository.findNearbyShopsByTypeAll(latitude, longitude, radiusMeters, vehicleType)
-                    : mechanicShopRepository.findNearbyShopsByType(latitude, longitude, radiusMeters, vehicleType);
+            List<?> shops;
+            if (adaptive) {
+                // Radius grows from a small ring until k shops are found (capped at max-radius)
+                int count = (k != null && k > 0) ? Math.min(k, MAX_PAGE_SIZE) : shopSearchService.getDefaultNearestCount();
+                shops = "full".equalsIgnoreCase(view)
+                    ? shopSearchService.findNearest(criteria, count)
+                    : shopSearchService.findNearestPins(criteria, count);
             } else {
-                shops = includeUnavailable
-                    ? mechanicShopRepository.findNearbyShopsAll(latitude, longitude, radiusMeters)
-                    : mechanicShopRepository.findNearbyShops(latitude, longitude, radiusMeters);
+                shops = "full".equalsIgnoreCase(view)
+                    ? shopSearchService.findNearby(criteria)
+                    : shopSearchService.findNearbyPins(criteria);
             }
             
             log.info("Found {} nearby mechanics", shops.size());
@@ -63,12 +105,125 @@ public class MechanicsController {
         }
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<ApiResponse<List<MechanicShop>>> getAllMechanics() {
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<?>>> searchMechanics(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "20") double radiusKm,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(required = false) List<String> services,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "false") boolean includeUnavailable,
+            @RequestParam(defaultValue = "false") boolean openNow,
+            @RequestParam(defaultValue = "pin") String view
+    ) {
         try {
-            List<MechanicShop> shops = mechanicShopRepository.findAll();
-            log.info("Fetching all mechanics - Found {}", shops.size());
+            ShopSearchCriteria criteria = new ShopSearchCriteria(latitude, longitude, Math.min(radiusKm * 1000, maxRadius));
+            criteria.setShopTypes(types);
+            criteria.setServiceKeywords(ServiceTags.normalize(services));
+            criteria.setMinRating(minRating);
+            criteria.setIncludeUnavailable(includeUnavailable);
+            criteria.setOpenNow(openNow);
+            
+            List<?> shops = "full".equalsIgnoreCase(view)
+                ? shopSearchService.findNearby(criteria)
+                : shopSearchService.findNearbyPins(criteria);
+            
+            log.info("Shop search - Types: {}, Services: {}, MinRating: {} - Found {}", types, services, minRating, shops.size());
             return ResponseEntity.ok(ApiResponse.success(shops));
+        } catch (Exception e) {
+            log.error("Error searching mechanics", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to search mechanics: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/nearby/page")
+    public ResponseEntity<ApiResponse<NearbyShopPage>> getNearbyMechanicsPage(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "20") double radiusKm,
+            @RequestParam(required = false) String vehicleType,
+            @RequestParam(defaultValue = "false") boolean includeUnavailable,
+            @RequestParam(defaultValue = "false") boolean openNow,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        try {
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("limit must be between 1 and " + MAX_PAGE_SIZE));
+            }
+            ShopSearchCriteria criteria = new ShopSearchCriteria(latitude, longitude, Math.min(radiusKm * 1000, maxRadius));
+            criteria.setShopType(vehicleType);
+            criteria.setIncludeUnavailable(includeUnavailable);
+            criteria.setOpenNow(openNow);
+            
+            NearbyShopPage page = shopSearchService.findNearbyPage(criteria, limit, cursor);
+            return ResponseEntity.ok(ApiResponse.success(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching nearby mechanics page", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to fetch nearby mechanics: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/nearby/batch")
+    public ResponseEntity<ApiResponse<List<NearbyBatchResult>>> getNearbyMechanicsBatch(
+            @Valid @RequestBody NearbyBatchRequest request
+    ) {
+        try {
+            List<LocationDTO> points = request.getPoints();
+            if (points.size() > maxBatchPoints) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("At most " + maxBatchPoints + " points per batch"));
+            }
+            int k = (request.getK() != null && request.getK() > 0)
+                ? Math.min(request.getK(), MAX_PAGE_SIZE) : shopSearchService.getDefaultNearestCount();
+            boolean fullView = "full".equalsIgnoreCase(request.getView());
+            
+            // Only the filters are used; each point supplies its own center
+            ShopSearchCriteria filters = new ShopSearchCriteria(0, 0, maxRadius);
+            filters.setShopType(request.getVehicleType());
+            filters.setIncludeUnavailable(request.isIncludeUnavailable());
+            filters.setOpenNow(request.isOpenNow());
+            
+            List<List<MechanicShop>> nearest = shopSearchService.findNearestBatch(points, filters, k);
+            
+            List<NearbyBatchResult> results = new ArrayList<>(points.size());
+            for (int i = 0; i < points.size(); i++) {
+                List<MechanicShop> shops = nearest.get(i);
+                results.add(new NearbyBatchResult(points.get(i).getLatitude(), points.get(i).getLongitude(),
+                    fullView ? shops : shops.stream().map(ShopPin::from).collect(Collectors.toList())));
+            }
+            
+            log.info("Batch nearby lookup for {} points (k={})", points.size(), k);
+            return ResponseEntity.ok(ApiResponse.success(results));
+        } catch (Exception e) {
+            log.error("Error fetching nearby mechanics batch", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to fetch nearby mechanics: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<?> getAllMechanics(
+            @RequestParam(defaultValue = "pin") String view,
+            WebRequest webRequest
+    ) {
+        try {
+            // Served from a pre-serialized snapshot; unchanged catalogs answer 304
+            ShopCatalogService.CatalogPayload catalog = shopCatalogService.getCatalog("full".equalsIgnoreCase(view));
+            if (webRequest.checkNotModified(catalog.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getEtag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(catalog.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalog.getBody());
         } catch (Exception e) {
             log.error("Error fetching all mechanics", e);
             return ResponseEntity.internalServerError()
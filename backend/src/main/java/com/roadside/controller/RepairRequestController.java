@@ -2,17 +2,24 @@ package com.roadside.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.roadside.dto.ApiResponse;
+import com.roadside.exception.IdempotencyConflictException;
+import com.roadside.exception.IdempotencyKeyMismatchException;
 import com.roadside.model.RepairRequest;
 import com.roadside.repository.RepairRequestRepository;
+import com.roadside.service.IdempotencyService;
+import com.roadside.service.LastKnownPositionService;
 import com.roadside.service.RepairRequestService;
+import com.roadside.service.RouteHistoryService;
 
 
 
@@ -26,19 +33,29 @@ public class RepairRequestController {
     private final RepairRequestRepository repairRequestRepository;
     private final RepairRequestService repairRequestService;
     private final com.roadside.repository.MechanicShopRepository mechanicShopRepository;
+    private final IdempotencyService idempotencyService;
+    private final LastKnownPositionService lastKnownPositionService;
+    private final RouteHistoryService routeHistoryService;
 
     // Manual constructor
     public RepairRequestController(RepairRequestRepository repairRequestRepository, 
                                    RepairRequestService repairRequestService,
-                                   com.roadside.repository.MechanicShopRepository mechanicShopRepository) {
+                                   com.roadside.repository.MechanicShopRepository mechanicShopRepository,
+                                   IdempotencyService idempotencyService,
+                                   LastKnownPositionService lastKnownPositionService,
+                                   RouteHistoryService routeHistoryService) {
         this.repairRequestRepository = repairRequestRepository;
         this.repairRequestService = repairRequestService;
         this.mechanicShopRepository = mechanicShopRepository;
+        this.idempotencyService = idempotencyService;
+        this.lastKnownPositionService = lastKnownPositionService;
+        this.routeHistoryService = routeHistoryService;
     }
 
     @org.springframework.web.bind.annotation.PostMapping
     public ResponseEntity<ApiResponse<RepairRequest>> createRequest(
             @org.springframework.web.bind.annotation.RequestBody @jakarta.validation.Valid com.roadside.dto.CreateRequestDTO requestDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         try {
             String userId = authentication.getName();
@@ -79,8 +96,13 @@ public class RepairRequestController {
             
             log.info("Received repair request from user {}: {}", userId, request);
             
-            RepairRequest createdRequest = repairRequestService.createRequest(request);
+            RepairRequest createdRequest = idempotencyService.execute("request", userId, idempotencyKey, requestDTO,
+                    () -> repairRequestService.createRequest(request));
             return ResponseEntity.ok(ApiResponse.success(createdRequest));
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error creating repair request", e);
             return ResponseEntity.internalServerError()
@@ -88,6 +110,75 @@ public class RepairRequestController {
         }
     }
 
+    @org.springframework.web.bind.annotation.PostMapping("/broadcast")
+    public ResponseEntity<ApiResponse<List<RepairRequest>>> createBroadcast(
+            @org.springframework.web.bind.annotation.RequestBody @jakarta.validation.Valid com.roadside.dto.BroadcastRequestDTO requestDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            List<RepairRequest> created = idempotencyService.executeAll("broadcast", userId, idempotencyKey, requestDTO,
+                    () -> repairRequestService.createBroadcast(userId, requestDTO));
+            return ResponseEntity.ok(ApiResponse.success(created));
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            log.warn("Broadcast request rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Mechanic's latest position for a tracking screen; served from memory, no history scan
+    @GetMapping("/{requestId}/location")
+    public ResponseEntity<ApiResponse<java.util.Map<String, Object>>> getLastKnownLocation(
+            @org.springframework.web.bind.annotation.PathVariable String requestId,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            RepairRequest request = repairRequestRepository.findParticipantsById(requestId);
+            if (request == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Request not found"));
+            }
+            if (!userId.equals(request.getClientId()) && !userId.equals(request.getMechanicUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Not authorized to track this request"));
+            }
+            java.util.Map<String, Object> position = lastKnownPositionService.get(requestId);
+            if (position == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("No location available yet"));
+            }
+            return ResponseEntity.ok(ApiResponse.success(position));
+        } catch (Exception e) {
+            log.error("Error fetching location for request {}", requestId, e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to fetch location: " + e.getMessage()));
+        }
+    }
+
+    // Simplified track for the work-history map, as an encoded polyline
+    @GetMapping("/{requestId}/route")
+    public ResponseEntity<ApiResponse<com.roadside.dto.RouteHistoryDTO>> getRouteHistory(
+            @org.springframework.web.bind.annotation.PathVariable String requestId,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) Double tolerance,
+            Authentication authentication) {
+        try {
+            String userId = authentication.getName();
+            RepairRequest request = repairRequestRepository.findParticipantsById(requestId);
+            if (request == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Request not found"));
+            }
+            if (!userId.equals(request.getClientId()) && !userId.equals(request.getMechanicUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Not authorized to view this route"));
+            }
+            return ResponseEntity.ok(ApiResponse.success(routeHistoryService.getRoute(requestId, tolerance)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching route for request {}", requestId, e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to fetch route: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/my-requests")
     public ResponseEntity<ApiResponse<List<RepairRequest>>> getMyRequests(Authentication authentication) {
         try {
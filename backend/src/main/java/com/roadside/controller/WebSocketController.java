@@ -1,7 +1,6 @@
 package com.roadside.controller;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
@@ -11,8 +10,9 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
 import com.roadside.model.LocationTracking;
-import com.roadside.repository.LocationTrackingRepository;
-import com.roadside.service.WebSocketService;
+import com.roadside.service.LastKnownPositionService;
+import com.roadside.service.LocationBroadcastCoalescer;
+import com.roadside.service.LocationIngestService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,8 +22,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class WebSocketController {
     
-    private final WebSocketService webSocketService;
-    private final LocationTrackingRepository locationTrackingRepository;
+    private final LocationIngestService locationIngestService;
+    private final LastKnownPositionService lastKnownPositionService;
+    private final LocationBroadcastCoalescer locationBroadcastCoalescer;
     
     @MessageMapping("/location-update")
     public void handleLocationUpdate(
@@ -53,17 +54,15 @@ public class WebSocketController {
             tracking.setSpeed(speed);
             tracking.setHeading(heading);
             
-            locationTrackingRepository.save(tracking);
+            // Written behind in batches; never blocks the inbound channel
+            locationIngestService.enqueue(tracking);
             
             // Broadcast location update
-            Map<String, Object> updateData = new HashMap<>();
-            updateData.put("requestId", requestId);
-            updateData.put("location", Map.of("latitude", latitude, "longitude", longitude));
-            updateData.put("speed", speed);
-            updateData.put("heading", heading);
-            updateData.put("timestamp", System.currentTimeMillis());
+            Map<String, Object> updateData = LastKnownPositionService.toFrame(tracking);
+            lastKnownPositionService.update(requestId, updateData);
             
-            webSocketService.sendLocationUpdate(requestId, updateData);
+            // Thinned to what clients can render; persistence above still gets the raw sample
+            locationBroadcastCoalescer.submit(requestId, updateData, latitude, longitude, heading);
             
             log.debug("Location update received for request: {}", requestId);
         } catch (Exception e) {
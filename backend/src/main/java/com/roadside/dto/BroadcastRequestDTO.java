@@ -0,0 +1,59 @@
+package com.roadside.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+// One problem sent to several shops: either the listed shopIds or every matching shop within radiusKm
+
+public class BroadcastRequestDTO {
+
+    @NotNull(message = "Client location is required")
+    @Valid
+    private LocationDTO clientLocation;
+
+    private String clientAddress;
+
+    @NotBlank(message = "Vehicle type is required")
+    @Pattern(regexp = "CAR|BIKE|TWO_WHEELER|FOUR_WHEELER", message = "Vehicle type must be CAR, BIKE, TWO_WHEELER or FOUR_WHEELER")
+    private String vehicleType;
+
+    @Pattern(regexp = "NORMAL|SOS", message = "Request type must be NORMAL or SOS")
+    private String type;
+
+    @Size(max = 500, message = "Problem description must not exceed 500 characters")
+    private String problemDescription;
+
+    private String aiSuggestion;
+
+    private List<String> images;
+
+    private List<String> shopIds;
+
+    private Double radiusKm;
+
+    public BroadcastRequestDTO() {}
+
+    public LocationDTO getClientLocation() { return clientLocation; }
+    public void setClientLocation(LocationDTO clientLocation) { this.clientLocation = clientLocation; }
+    public String getClientAddress() { return clientAddress; }
+    public void setClientAddress(String clientAddress) { this.clientAddress = clientAddress; }
+    public String getVehicleType() { return vehicleType; }
+    public void setVehicleType(String vehicleType) { this.vehicleType = vehicleType; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getProblemDescription() { return problemDescription; }
+    public void setProblemDescription(String problemDescription) { this.problemDescription = problemDescription; }
+    public String getAiSuggestion() { return aiSuggestion; }
+    public void setAiSuggestion(String aiSuggestion) { this.aiSuggestion = aiSuggestion; }
+    public List<String> getImages() { return images; }
+    public void setImages(List<String> images) { this.images = images; }
+    public List<String> getShopIds() { return shopIds; }
+    public void setShopIds(List<String> shopIds) { this.shopIds = shopIds; }
+    public Double getRadiusKm() { return radiusKm; }
+    public void setRadiusKm(Double radiusKm) { this.radiusKm = radiusKm; }
+}
@@ -0,0 +1,36 @@
+package com.roadside.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+// Several points searched in one call; the filters apply to every point
+
+public class NearbyBatchRequest {
+
+    @NotEmpty(message = "At least one point is required")
+    @Valid
+    private List<LocationDTO> points;
+
+    private Integer k;
+    private String vehicleType;
+    private boolean includeUnavailable;
+    private boolean openNow;
+    private String view;
+
+    public NearbyBatchRequest() {}
+
+    public List<LocationDTO> getPoints() { return points; }
+    public void setPoints(List<LocationDTO> points) { this.points = points; }
+    public Integer getK() { return k; }
+    public void setK(Integer k) { this.k = k; }
+    public String getVehicleType() { return vehicleType; }
+    public void setVehicleType(String vehicleType) { this.vehicleType = vehicleType; }
+    public boolean isIncludeUnavailable() { return includeUnavailable; }
+    public void setIncludeUnavailable(boolean includeUnavailable) { this.includeUnavailable = includeUnavailable; }
+    public boolean isOpenNow() { return openNow; }
+    public void setOpenNow(boolean openNow) { this.openNow = openNow; }
+    public String getView() { return view; }
+    public void setView(String view) { this.view = view; }
+}
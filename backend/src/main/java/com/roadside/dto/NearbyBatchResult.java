@@ -0,0 +1,27 @@
+package com.roadside.dto;
+
+import java.util.List;
+
+// Nearest shops for one point of a batch lookup, in the same order as the request points
+
+public class NearbyBatchResult {
+
+    private Double latitude;
+    private Double longitude;
+    private List<?> shops;
+
+    public NearbyBatchResult() {}
+
+    public NearbyBatchResult(Double latitude, Double longitude, List<?> shops) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.shops = shops;
+    }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public List<?> getShops() { return shops; }
+    public void setShops(List<?> shops) { this.shops = shops; }
+}
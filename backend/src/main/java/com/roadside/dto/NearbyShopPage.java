@@ -0,0 +1,25 @@
+package com.roadside.dto;
+
+import java.util.List;
+
+import com.roadside.model.MechanicShop;
+
+// One page of distance-ordered nearby shops; nextCursor is null on the last page
+
+public class NearbyShopPage {
+
+    private List<MechanicShop> items;
+    private String nextCursor;
+
+    public NearbyShopPage() {}
+
+    public NearbyShopPage(List<MechanicShop> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<MechanicShop> getItems() { return items; }
+    public void setItems(List<MechanicShop> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,36 @@
+package com.roadside.dto;
+
+import java.time.LocalDateTime;
+
+// Simplified track of a request as a Google encoded polyline (1e-5 precision, lat/lng order)
+
+public class RouteHistoryDTO {
+
+    private String requestId;
+    private String polyline;
+    private Double toleranceMeters;
+    private Integer originalPoints;
+    private Integer points;
+    private Double distanceMeters;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+
+    public RouteHistoryDTO() {}
+
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+    public String getPolyline() { return polyline; }
+    public void setPolyline(String polyline) { this.polyline = polyline; }
+    public Double getToleranceMeters() { return toleranceMeters; }
+    public void setToleranceMeters(Double toleranceMeters) { this.toleranceMeters = toleranceMeters; }
+    public Integer getOriginalPoints() { return originalPoints; }
+    public void setOriginalPoints(Integer originalPoints) { this.originalPoints = originalPoints; }
+    public Integer getPoints() { return points; }
+    public void setPoints(Integer points) { this.points = points; }
+    public Double getDistanceMeters() { return distanceMeters; }
+    public void setDistanceMeters(Double distanceMeters) { this.distanceMeters = distanceMeters; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getEndedAt() { return endedAt; }
+    public void setEndedAt(LocalDateTime endedAt) { this.endedAt = endedAt; }
+}
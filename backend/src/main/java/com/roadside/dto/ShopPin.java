@@ -0,0 +1,64 @@
+package com.roadside.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.roadside.model.MechanicShop;
+
+// Compact shop summary for map pins; full details come from /api/v1/mechanics/{id}
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShopPin {
+
+    private String id;
+    private String shopName;
+    private Double latitude;
+    private Double longitude;
+    private Double rating;
+    private Boolean isAvailable;
+    private List<String> shopTypes;
+    private Double distance; // meters, only set by nearby searches
+
+    public ShopPin() {}
+
+    public ShopPin(String id, String shopName, Double latitude, Double longitude, Double rating, Boolean isAvailable, List<String> shopTypes, Double distance) {
+        this.id = id;
+        this.shopName = shopName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.rating = rating;
+        this.isAvailable = isAvailable;
+        this.shopTypes = shopTypes;
+        this.distance = distance;
+    }
+
+    public static ShopPin from(MechanicShop shop) {
+        return new ShopPin(
+            shop.getId(),
+            shop.getShopName(),
+            shop.getLocation() != null ? shop.getLocation().getY() : null,
+            shop.getLocation() != null ? shop.getLocation().getX() : null,
+            shop.getRating(),
+            shop.getIsAvailable(),
+            shop.getShopTypes(),
+            shop.getDistance()
+        );
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getShopName() { return shopName; }
+    public void setShopName(String shopName) { this.shopName = shopName; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public Double getRating() { return rating; }
+    public void setRating(Double rating) { this.rating = rating; }
+    public Boolean getIsAvailable() { return isAvailable; }
+    public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
+    public List<String> getShopTypes() { return shopTypes; }
+    public void setShopTypes(List<String> shopTypes) { this.shopTypes = shopTypes; }
+    public Double getDistance() { return distance; }
+    public void setDistance(Double distance) { this.distance = distance; }
+}
@@ -0,0 +1,61 @@
+package com.roadside.dto;
+
+import java.util.List;
+
+// Filters for nearby shop searches; radius is in meters
+
+public class ShopSearchCriteria {
+
+    private double latitude;
+    private double longitude;
+    private double radiusMeters;
+    private double minRadiusMeters;       // inner edge of a ring search, 0 for a full disc
+    private List<String> shopTypes;       // match any
+    private List<String> serviceKeywords; // match all, normalized like MechanicShop.serviceTags
+    private Double minRating;
+    private boolean includeUnavailable;
+    private boolean openNow;
+
+    public ShopSearchCriteria() {}
+
+    public ShopSearchCriteria(double latitude, double longitude, double radiusMeters) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusMeters = radiusMeters;
+    }
+
+    // Same filters around a different point/radius (full disc)
+    public ShopSearchCriteria withArea(double latitude, double longitude, double radiusMeters) {
+        ShopSearchCriteria copy = new ShopSearchCriteria(latitude, longitude, radiusMeters);
+        copy.shopTypes = shopTypes;
+        copy.serviceKeywords = serviceKeywords;
+        copy.minRating = minRating;
+        copy.includeUnavailable = includeUnavailable;
+        copy.openNow = openNow;
+        return copy;
+    }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+    public double getRadiusMeters() { return radiusMeters; }
+    public void setRadiusMeters(double radiusMeters) { this.radiusMeters = radiusMeters; }
+    public double getMinRadiusMeters() { return minRadiusMeters; }
+    public void setMinRadiusMeters(double minRadiusMeters) { this.minRadiusMeters = minRadiusMeters; }
+    public List<String> getShopTypes() { return shopTypes; }
+    public void setShopTypes(List<String> shopTypes) { this.shopTypes = shopTypes; }
+    public List<String> getServiceKeywords() { return serviceKeywords; }
+    public void setServiceKeywords(List<String> serviceKeywords) { this.serviceKeywords = serviceKeywords; }
+    public Double getMinRating() { return minRating; }
+    public void setMinRating(Double minRating) { this.minRating = minRating; }
+    public boolean isIncludeUnavailable() { return includeUnavailable; }
+    public void setIncludeUnavailable(boolean includeUnavailable) { this.includeUnavailable = includeUnavailable; }
+    public boolean isOpenNow() { return openNow; }
+    public void setOpenNow(boolean openNow) { this.openNow = openNow; }
+
+    // Single-type filter used by the older nearby endpoints
+    public void setShopType(String shopType) {
+        this.shopTypes = (shopType != null && !shopType.isEmpty()) ? List.of(shopType) : null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.roadside.exception;
+
+// Another submit with the same Idempotency-Key is still being processed (HTTP 409)
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
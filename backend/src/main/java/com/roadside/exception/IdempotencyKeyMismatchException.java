@@ -0,0 +1,9 @@
+package com.roadside.exception;
+
+// An Idempotency-Key was reused with a different request body (HTTP 422)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
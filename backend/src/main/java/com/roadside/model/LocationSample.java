@@ -0,0 +1,52 @@
+package com.roadside.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// LocationTracking as stored in the location_tracks time-series collection. Samples are
+// bucketed by meta (one series per request/mechanic) and time. The collection's time-series
+// options and TTL are defined only in LocationTimeSeriesRepository.ensureCollection.
+@Document(collection = "location_tracks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationSample {
+
+    @Id
+    private String id;
+
+    private Meta meta;
+
+    private GeoJsonPoint location;
+
+    private LocalDateTime timestamp;
+
+    private Double speed; // km/h
+
+    private Double heading; // Degrees (0-360)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Meta {
+        private String requestId;
+        private String mechanicUserId;
+    }
+
+    // Keeps the source id (null for new pings), so a migrated sample can be recognised if copied again
+    public static LocationSample from(LocationTracking tracking) {
+        return new LocationSample(tracking.getId(), new Meta(tracking.getRequestId(), tracking.getMechanicUserId()),
+                tracking.getLocation(), tracking.getTimestamp(), tracking.getSpeed(), tracking.getHeading());
+    }
+
+    public LocationTracking toTracking() {
+        return new LocationTracking(id, meta != null ? meta.getRequestId() : null,
+                meta != null ? meta.getMechanicUserId() : null, location, timestamp, speed, heading);
+    }
+}
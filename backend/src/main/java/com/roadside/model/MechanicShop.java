@@ -5,6 +5,8 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
@@ -13,6 +15,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "mechanic_shops")
+// shopTypes and serviceTags are both arrays, so they can't share one compound index
+@CompoundIndexes({
+    @CompoundIndex(name = "location_shopTypes_isAvailable", def = "{ 'location': '2dsphere', 'shopTypes': 1, 'isAvailable': 1 }"),
+    @CompoundIndex(name = "location_serviceTags_isAvailable", def = "{ 'location': '2dsphere', 'serviceTags': 1, 'isAvailable': 1 }")
+})
 public class MechanicShop {
     
     @Id
@@ -36,6 +43,10 @@ public class MechanicShop {
     
     private String closeTime; // Format: "21:00"
     
+    private Integer openMinutes; // openTime as minute of day, -1 if unparseable
+    
+    private Integer closeMinutes; // closeTime as minute of day, -1 if unparseable
+    
     private Double rating = 0.0;
     
     private Integer totalRatings = 0;
@@ -52,6 +63,8 @@ public class MechanicShop {
     private Double distance;
     
     private String servicesOffered;
+    
+    private List<String> serviceTags; // Lowercase keywords derived from servicesOffered
 
     public MechanicShop() {}
 
@@ -93,6 +106,10 @@ public class MechanicShop {
     public void setOpenTime(String openTime) { this.openTime = openTime; }
     public String getCloseTime() { return closeTime; }
     public void setCloseTime(String closeTime) { this.closeTime = closeTime; }
+    public Integer getOpenMinutes() { return openMinutes; }
+    public void setOpenMinutes(Integer openMinutes) { this.openMinutes = openMinutes; }
+    public Integer getCloseMinutes() { return closeMinutes; }
+    public void setCloseMinutes(Integer closeMinutes) { this.closeMinutes = closeMinutes; }
     public Double getRating() { return rating; }
     public void setRating(Double rating) { this.rating = rating; }
     public Integer getTotalRatings() { return totalRatings; }
@@ -107,4 +124,6 @@ public class MechanicShop {
     public void setDistance(Double distance) { this.distance = distance; }
     public String getServicesOffered() { return servicesOffered; }
     public void setServicesOffered(String servicesOffered) { this.servicesOffered = servicesOffered; }
+    public List<String> getServiceTags() { return serviceTags; }
+    public void setServiceTags(List<String> serviceTags) { this.serviceTags = serviceTags; }
 }
@@ -2,6 +2,7 @@ package com.roadside.model;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
@@ -54,8 +55,14 @@ public class RepairRequest {
     
     private List<String> rejectedBy;  // List of mechanic user IDs who rejected
     
+    private List<String> offeredShopIds; // Shops the dispatcher has offered this request to (SOS)
+    
     private LocalDateTime completedAt;
     
+    private LocalDateTime expiredAt;
+    
+    private Map<String, LocalDateTime> statusChangedAt; // RequestStatus name -> when the request entered it
+    
     private Integer rating;
     
     private String review;
@@ -131,8 +138,14 @@ public class RepairRequest {
     public void setAcceptedAt(LocalDateTime acceptedAt) { this.acceptedAt = acceptedAt; }
     public List<String> getRejectedBy() { return rejectedBy; }
     public void setRejectedBy(List<String> rejectedBy) { this.rejectedBy = rejectedBy; }
+    public List<String> getOfferedShopIds() { return offeredShopIds; }
+    public void setOfferedShopIds(List<String> offeredShopIds) { this.offeredShopIds = offeredShopIds; }
     public LocalDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public LocalDateTime getExpiredAt() { return expiredAt; }
+    public void setExpiredAt(LocalDateTime expiredAt) { this.expiredAt = expiredAt; }
+    public Map<String, LocalDateTime> getStatusChangedAt() { return statusChangedAt; }
+    public void setStatusChangedAt(Map<String, LocalDateTime> statusChangedAt) { this.statusChangedAt = statusChangedAt; }
     public Integer getRating() { return rating; }
     public void setRating(Integer rating) { this.rating = rating; }
     public String getReview() { return review; }
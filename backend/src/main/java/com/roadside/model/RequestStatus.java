@@ -0,0 +1,57 @@
+package com.roadside.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Repair request lifecycle. RepairRequest.status stores the name; transitions are only
+// applied through RequestLifecycleService, which checks them against this table.
+
+public enum RequestStatus {
+    PENDING,
+    SOS_PENDING,
+    ACCEPTED,
+    IN_PROGRESS,
+    COMPLETED,
+    REJECTED,
+    CANCELLED,
+    EXPIRED;
+
+    public Set<RequestStatus> allowedNext() {
+        return switch (this) {
+            case PENDING, SOS_PENDING -> EnumSet.of(ACCEPTED, REJECTED, CANCELLED, EXPIRED);
+            case ACCEPTED -> EnumSet.of(IN_PROGRESS, COMPLETED, CANCELLED);
+            case IN_PROGRESS -> EnumSet.of(COMPLETED, CANCELLED);
+            default -> EnumSet.noneOf(RequestStatus.class); // terminal
+        };
+    }
+
+    // Statuses a request may be in for a move to this one
+    public Set<RequestStatus> allowedFrom() {
+        Set<RequestStatus> from = EnumSet.noneOf(RequestStatus.class);
+        for (RequestStatus status : values()) {
+            if (status.allowedNext().contains(this)) {
+                from.add(status);
+            }
+        }
+        return from;
+    }
+
+    public boolean isTerminal() {
+        return allowedNext().isEmpty();
+    }
+
+    public boolean canTransitionTo(RequestStatus next) {
+        return allowedNext().contains(next);
+    }
+
+    public static RequestStatus from(String value) {
+        if (value == null) {
+            throw new RuntimeException("Status is required");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown request status: " + value);
+        }
+    }
+}
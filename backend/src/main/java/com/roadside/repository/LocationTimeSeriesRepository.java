@@ -0,0 +1,130 @@
+package com.roadside.repository;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.roadside.model.LocationSample;
+import com.roadside.model.LocationTracking;
+
+/**
+ * Location history in the location_tracks time-series collection. Mongo groups samples of the
+ * same meta (request + mechanic) into time buckets, so a request's track is read as a few
+ * contiguous buckets filtered on meta.requestId and timestamp instead of one index entry and
+ * document per point. Callers work with LocationTracking either way.
+ */
+@Repository
+public class LocationTimeSeriesRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationTimeSeriesRepository.class);
+
+    public static final String COLLECTION = "location_tracks";
+
+    private final MongoTemplate mongoTemplate;
+
+    public LocationTimeSeriesRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Inserting into a missing collection would create a regular one, so this must run before the first write
+    public void ensureCollection(long ttlSeconds) {
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            CreateCollectionOptions options = new CreateCollectionOptions()
+                    .timeSeriesOptions(new TimeSeriesOptions("timestamp")
+                            .metaField("meta")
+                            .granularity(TimeSeriesGranularity.SECONDS))
+                    .expireAfter(ttlSeconds, TimeUnit.SECONDS);
+            mongoTemplate.getDb().createCollection(COLLECTION, options);
+            log.info("Created time-series collection {}", COLLECTION);
+        }
+        // Secondary index on the buckets' meta/time bounds for per-request range reads
+        mongoTemplate.getCollection(COLLECTION).createIndex(
+                new Document("meta.requestId", 1).append("timestamp", 1),
+                new IndexOptions().name("meta_requestId_timestamp"));
+    }
+
+    public void insertAll(List<LocationTracking> samples) {
+        mongoTemplate.insert(samples.stream().map(LocationSample::from).collect(Collectors.toList()), LocationSample.class);
+    }
+
+    // Inserts the samples whose _id isn't in the collection yet and returns how many that was.
+    // Time-series collections don't enforce unique _id, so a re-copied batch is filtered here.
+    public int insertMissing(List<LocationTracking> samples) {
+        Set<String> ids = new HashSet<>();
+        Set<String> requestIds = new HashSet<>();
+        for (LocationTracking sample : samples) {
+            ids.add(sample.getId());
+            requestIds.add(sample.getRequestId());
+        }
+        // meta.requestId narrows the lookup to the buckets of these requests
+        Query existing = new Query(Criteria.where("meta.requestId").in(requestIds).and("_id").in(ids));
+        existing.fields().include("_id");
+        Set<String> present = mongoTemplate.find(existing, LocationSample.class).stream()
+                .map(LocationSample::getId)
+                .collect(Collectors.toSet());
+
+        List<LocationTracking> missing = samples.stream()
+                .filter(sample -> !present.contains(sample.getId()))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            insertAll(missing);
+        }
+        return missing.size();
+    }
+
+    // Oldest first; from/to are optional bounds
+    public List<LocationTracking> findTrack(String requestId, LocalDateTime from, LocalDateTime to) {
+        return mongoTemplate.find(trackQuery(requestId, from, to), LocationSample.class).stream()
+                .map(LocationSample::toTracking)
+                .collect(Collectors.toList());
+    }
+
+    // Cursor-backed; the caller must close the stream
+    public Stream<LocationTracking> streamTrack(String requestId, LocalDateTime from, LocalDateTime to) {
+        return mongoTemplate.stream(trackQuery(requestId, from, to), LocationSample.class).map(LocationSample::toTracking);
+    }
+
+    public Optional<LocationTracking> findLatest(String requestId) {
+        Query query = new Query(Criteria.where("meta.requestId").is(requestId))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .limit(1);
+        return Optional.ofNullable(mongoTemplate.findOne(query, LocationSample.class)).map(LocationSample::toTracking);
+    }
+
+    // Time-series deletes may only filter on the meta field
+    public void deleteByMechanicUserId(String mechanicUserId) {
+        mongoTemplate.remove(new Query(Criteria.where("meta.mechanicUserId").is(mechanicUserId)), LocationSample.class);
+    }
+
+    private static Query trackQuery(String requestId, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = Criteria.where("meta.requestId").is(requestId);
+        if (from != null || to != null) {
+            Criteria range = criteria.and("timestamp");
+            if (from != null) {
+                range.gte(from);
+            }
+            if (to != null) {
+                range.lte(to);
+            }
+        }
+        return new Query(criteria).with(Sort.by(Sort.Direction.ASC, "timestamp"));
+    }
+}
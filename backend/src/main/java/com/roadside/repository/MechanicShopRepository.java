@@ -10,7 +10,7 @@ import org.springframework.stereotype.Repository;
 import com.roadside.model.MechanicShop;
 
 @Repository
-public interface MechanicShopRepository extends MongoRepository<MechanicShop, String> {
+public interface MechanicShopRepository extends MongoRepository<MechanicShop, String>, MechanicShopRepositoryCustom {
 
     Optional<MechanicShop> findByUserId(String userId);
 
@@ -23,6 +23,10 @@ public interface MechanicShopRepository extends MongoRepository<MechanicShop, St
     @Query("{ 'location': { $near: { $geometry: { type: 'Point', coordinates: [?1, ?0] }, $maxDistance: ?2 } } }")
     List<MechanicShop> findNearbyShopsAll(double latitude, double longitude, double maxDistance);
 
+    // Map pin fields only (see ShopPin)
+    @Query(value = "{}", fields = "{ 'shopName': 1, 'location': 1, 'rating': 1, 'isAvailable': 1, 'shopTypes': 1 }")
+    List<MechanicShop> findAllPins();
+
     // Find all shops (for "Show All" feature)
     List<MechanicShop> findByIsAvailable(Boolean isAvailable);
 
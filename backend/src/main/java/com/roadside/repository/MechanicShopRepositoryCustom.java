@@ -0,0 +1,38 @@
+package com.roadside.repository;
+
+import java.util.List;
+
+import com.roadside.dto.LocationDTO;
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+
+// Aggregation-based queries that derived/@Query methods can't express
+public interface MechanicShopRepositoryCustom {
+
+    // All matching shops, nearest first, with distance (meters) filled in by $geoNear
+    List<MechanicShop> findNearbyWithDistance(ShopSearchCriteria criteria);
+
+    // Same as findNearbyWithDistance but only the map pin fields are returned
+    List<MechanicShop> findNearbyPins(ShopSearchCriteria criteria);
+
+    // One page of shops in $geoNear order, resuming strictly after (afterDistance, afterId) when given
+    List<MechanicShop> findNearbyPage(ShopSearchCriteria criteria, Double afterDistance, String afterId, int limit);
+
+    // Partial updates: each is one findAndModify touching only the named fields, returning the updated shop (or null)
+
+    MechanicShop setAvailabilityByUserId(String userId, boolean isAvailable);
+
+    // Folds one new rating into the running average server-side, so concurrent ratings can't overwrite each other
+    MechanicShop addRating(String shopId, int rating);
+
+    MechanicShop setRatingSummary(String shopId, double rating, int totalRatings);
+
+    // Fills openMinutes/closeMinutes from openTime/closeTime on shops saved before those fields existed; returns the count
+    int backfillOpeningMinutes();
+
+    // Fills serviceTags from servicesOffered on shops saved before tags existed; returns the count
+    int backfillServiceTags();
+
+    // Shops matching the filters within radiusMeters of any of the centers, in a single query (distance not set)
+    List<MechanicShop> findWithinAny(ShopSearchCriteria filters, List<LocationDTO> centers, double radiusMeters);
+}
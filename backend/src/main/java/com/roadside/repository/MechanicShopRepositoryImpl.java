@@ -0,0 +1,240 @@
+package com.roadside.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.roadside.dto.LocationDTO;
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+import com.roadside.util.GeoUtils;
+import com.roadside.util.OpeningHours;
+import com.roadside.util.ServiceTags;
+
+public class MechanicShopRepositoryImpl implements MechanicShopRepositoryCustom {
+
+    private static final String DISTANCE_FIELD = "distance";
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MechanicShopRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<MechanicShop> findNearbyWithDistance(ShopSearchCriteria criteria) {
+        // $geoNear already emits documents in distance order
+        return aggregate(List.of(new Document("$geoNear", geoNearStage(criteria))));
+    }
+
+    @Override
+    public List<MechanicShop> findNearbyPins(ShopSearchCriteria criteria) {
+        Document pinFields = new Document("shopName", 1)
+            .append("location", 1)
+            .append("rating", 1)
+            .append("isAvailable", 1)
+            .append("shopTypes", 1)
+            // The tile cache refines openNow from these, so pins must carry them
+            .append("openMinutes", 1)
+            .append("closeMinutes", 1)
+            .append(DISTANCE_FIELD, 1);
+        return aggregate(List.of(
+            new Document("$geoNear", geoNearStage(criteria)),
+            new Document("$project", pinFields)
+        ));
+    }
+
+    @Override
+    public List<MechanicShop> findNearbyPage(ShopSearchCriteria criteria, Double afterDistance, String afterId, int limit) {
+        Document geoNear = geoNearStage(criteria);
+        if (afterDistance != null) {
+            geoNear.put("minDistance", Math.max(afterDistance, criteria.getMinRadiusMeters()));
+        }
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$geoNear", geoNear));
+        if (afterDistance != null && afterId != null) {
+            // $geoNear resumes at minDistance; this drops the previous page's last item and anything
+            // tied with it at or before its _id
+            pipeline.add(new Document("$match", new Document("$or", List.of(
+                new Document(DISTANCE_FIELD, new Document("$gt", afterDistance)),
+                new Document(DISTANCE_FIELD, afterDistance).append("_id", new Document("$gt", toId(afterId)))
+            ))));
+        }
+        // $geoNear doesn't order ties by _id, which the cursor relies on. $sort + $limit coalesce
+        // into a top-k sort, so only `limit` documents are held while the radius is read
+        pipeline.add(new Document("$sort", new Document(DISTANCE_FIELD, 1).append("_id", 1)));
+        pipeline.add(new Document("$limit", limit));
+
+        return aggregate(pipeline);
+    }
+
+    @Override
+    public MechanicShop setAvailabilityByUserId(String userId, boolean isAvailable) {
+        Update update = new Update().set("isAvailable", isAvailable).set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(Criteria.where("userId").is(userId)), update, RETURN_NEW, MechanicShop.class);
+    }
+
+    @Override
+    public MechanicShop addRating(String shopId, int rating) {
+        Document total = new Document("$ifNull", List.of("$totalRatings", 0));
+        Document average = new Document("$ifNull", List.of("$rating", 0));
+        // Pipeline update: both fields are computed from the stored values in the same write
+        Document set = new Document("rating", new Document("$divide", List.of(
+                new Document("$add", List.of(new Document("$multiply", List.of(average, total)), rating)),
+                new Document("$add", List.of(total, 1)))))
+            .append("totalRatings", new Document("$add", List.of(total, 1)))
+            .append("updatedAt", LocalDateTime.now());
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(shopId)), update, RETURN_NEW, MechanicShop.class);
+    }
+
+    @Override
+    public MechanicShop setRatingSummary(String shopId, double rating, int totalRatings) {
+        Update update = new Update()
+            .set("rating", rating)
+            .set("totalRatings", totalRatings)
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(shopId)), update, RETURN_NEW, MechanicShop.class);
+    }
+
+    @Override
+    public int backfillOpeningMinutes() {
+        // null matches both a missing field and an explicit null
+        Query missing = new Query(new Criteria().orOperator(
+            Criteria.where("openMinutes").is(null),
+            Criteria.where("closeMinutes").is(null)));
+        missing.fields().include("openTime").include("closeTime");
+        List<MechanicShop> shops = mongoTemplate.find(missing, MechanicShop.class);
+        if (shops.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MechanicShop.class);
+        for (MechanicShop shop : shops) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(shop.getId())), new Update()
+                .set("openMinutes", OpeningHours.toMinuteOfDay(shop.getOpenTime()))
+                .set("closeMinutes", OpeningHours.toMinuteOfDay(shop.getCloseTime())));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public int backfillServiceTags() {
+        Query missing = new Query(Criteria.where("serviceTags").is(null));
+        missing.fields().include("servicesOffered");
+        List<MechanicShop> shops = mongoTemplate.find(missing, MechanicShop.class);
+        if (shops.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MechanicShop.class);
+        for (MechanicShop shop : shops) {
+            // An empty list is still written so shops without services aren't rescanned every start
+            bulk.updateOne(new Query(Criteria.where("_id").is(shop.getId())),
+                new Update().set("serviceTags", ServiceTags.fromText(shop.getServicesOffered())));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public List<MechanicShop> findWithinAny(ShopSearchCriteria filters, List<LocationDTO> centers, double radiusMeters) {
+        // One $geoWithin disc per center, OR-ed together; each branch can use the 2dsphere index
+        double radians = radiusMeters / GeoUtils.EARTH_RADIUS_METERS;
+        List<Document> discs = new ArrayList<>();
+        for (LocationDTO center : centers) {
+            discs.add(new Document("location", new Document("$geoWithin", new Document("$centerSphere",
+                List.of(List.of(center.getLongitude(), center.getLatitude()), radians)))));
+        }
+        Document query = filterQuery(filters).append("$or", discs);
+
+        List<MechanicShop> shops = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(MechanicShop.class))
+            .find(query)
+            .forEach(doc -> shops.add(mongoTemplate.getConverter().read(MechanicShop.class, doc)));
+        return shops;
+    }
+
+    private Document geoNearStage(ShopSearchCriteria criteria) {
+        Document stage = new Document("near", new Document("type", "Point")
+                .append("coordinates", List.of(criteria.getLongitude(), criteria.getLatitude())))
+            .append("distanceField", DISTANCE_FIELD)
+            .append("maxDistance", criteria.getRadiusMeters())
+            .append("spherical", true)
+            .append("key", "location")
+            .append("query", filterQuery(criteria));
+        if (criteria.getMinRadiusMeters() > 0) {
+            stage.append("minDistance", criteria.getMinRadiusMeters());
+        }
+        return stage;
+    }
+
+    // Non-geo filters shared by every search
+    private Document filterQuery(ShopSearchCriteria criteria) {
+        Document query = new Document();
+        if (!criteria.isIncludeUnavailable()) {
+            query.append("isAvailable", true);
+        }
+        if (criteria.getShopTypes() != null && !criteria.getShopTypes().isEmpty()) {
+            query.append("shopTypes", new Document("$in", criteria.getShopTypes()));
+        }
+        if (criteria.getServiceKeywords() != null && !criteria.getServiceKeywords().isEmpty()) {
+            query.append("serviceTags", new Document("$all", criteria.getServiceKeywords()));
+        }
+        if (criteria.getMinRating() != null) {
+            query.append("rating", new Document("$gte", criteria.getMinRating()));
+        }
+        if (criteria.isOpenNow()) {
+            query.append("$expr", openAt(OpeningHours.currentMinuteOfDay()));
+        }
+        return query;
+    }
+
+    // Server-side equivalent of OpeningHours.isOpen over openMinutes/closeMinutes
+    private static Document openAt(int nowMinute) {
+        Document open = new Document("$ifNull", List.of("$openMinutes", OpeningHours.UNKNOWN));
+        Document close = new Document("$ifNull", List.of("$closeMinutes", OpeningHours.UNKNOWN));
+        Document afterOpen = new Document("$gte", List.of(nowMinute, "$$open"));
+        Document beforeClose = new Document("$lt", List.of(nowMinute, "$$close"));
+
+        Document alwaysOpen = new Document("$or", List.of(
+            new Document("$lt", List.of("$$open", 0)),
+            new Document("$lt", List.of("$$close", 0)),
+            new Document("$eq", List.of("$$open", "$$close"))
+        ));
+        Document openNow = new Document("$cond", List.of(
+            new Document("$lt", List.of("$$open", "$$close")),
+            new Document("$and", List.of(afterOpen, beforeClose)),
+            new Document("$or", List.of(afterOpen, beforeClose)) // wraps past midnight
+        ));
+
+        return new Document("$let", new Document("vars", new Document("open", open).append("close", close))
+            .append("in", new Document("$or", List.of(alwaysOpen, openNow))));
+    }
+
+    private List<MechanicShop> aggregate(List<Document> pipeline) {
+        List<MechanicShop> shops = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(MechanicShop.class))
+            .aggregate(pipeline)
+            .forEach(doc -> {
+                // distance is @Transient on the entity, so it has to be copied over by hand
+                MechanicShop shop = mongoTemplate.getConverter().read(MechanicShop.class, doc);
+                shop.setDistance(doc.getDouble(DISTANCE_FIELD));
+                shops.add(shop);
+            });
+        return shops;
+    }
+
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,13 @@
+package com.roadside.repository;
+
+import com.roadside.model.Notification;
+
+// Partial updates for notifications; no read-before-write
+public interface NotificationRepositoryCustom {
+
+    // Returns the updated notification, or null if it doesn't exist
+    Notification markAsRead(String notificationId);
+
+    // Single updateMany; returns how many were unread
+    long markAllAsRead(String userId);
+}
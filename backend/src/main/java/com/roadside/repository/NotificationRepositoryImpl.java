@@ -0,0 +1,30 @@
+package com.roadside.repository;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.roadside.model.Notification;
+
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public NotificationRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Notification markAsRead(String notificationId) {
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(notificationId)),
+            new Update().set("isRead", true), FindAndModifyOptions.options().returnNew(true), Notification.class);
+    }
+
+    @Override
+    public long markAllAsRead(String userId) {
+        Query unread = new Query(Criteria.where("userId").is(userId).and("isRead").is(false));
+        return mongoTemplate.updateMulti(unread, new Update().set("isRead", true), Notification.class).getModifiedCount();
+    }
+}
@@ -5,10 +5,11 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface RepairRequestRepository extends MongoRepository<RepairRequest, String> {
+public interface RepairRequestRepository extends MongoRepository<RepairRequest, String>, RepairRequestRepositoryCustom {
 
     List<RepairRequest> findByClientId(String clientId);
 
@@ -24,9 +25,26 @@ public interface RepairRequestRepository extends MongoRepository<RepairRequest,
     // Find requests by broadcast ID
     List<RepairRequest> findByBroadcastId(String broadcastId);
 
+    // Removes the still-pending broadcast siblings of the accepted one; returns what was actually deleted
+    List<RepairRequest> deleteByBroadcastIdAndIdNotAndStatusIn(String broadcastId, String excludeId, Collection<String> statuses);
+
+    // Same for direct-request siblings: only those still pending, returning what was deleted
+    List<RepairRequest> deleteByIdInAndStatusIn(Collection<String> ids, Collection<String> statuses);
+
     // For auto-expire scheduler
     List<RepairRequest> findByStatusAndCreatedAtBefore(String status, LocalDateTime expiryTime);
 
+    @org.springframework.data.mongodb.repository.Query(value = "{ '_id': ?0 }", fields = "{ 'status': 1 }")
+    RepairRequest findStatusById(String id);
+
+    // Accept path: which broadcast (if any) a request belongs to, before anything is written
+    @org.springframework.data.mongodb.repository.Query(value = "{ '_id': ?0 }", fields = "{ 'broadcastId': 1, 'status': 1 }")
+    RepairRequest findBroadcastIdById(String id);
+
+    // Who may see a request's live data, without loading images/descriptions
+    @org.springframework.data.mongodb.repository.Query(value = "{ '_id': ?0 }", fields = "{ 'clientId': 1, 'mechanicUserId': 1, 'status': 1 }")
+    RepairRequest findParticipantsById(String id);
+
     // Count requests for fraud detection
     Long countByClientIdAndCreatedAtAfter(String clientId, LocalDateTime since);
 
@@ -35,6 +53,13 @@ public interface RepairRequestRepository extends MongoRepository<RepairRequest,
     @org.springframework.data.mongodb.repository.Query("{ '$or': [ { 'mechanicUserId': ?0 }, { 'rejectedBy': ?0 } ] }")
     List<RepairRequest> findByMechanicHistory(String userId);
 
+    // Dispatch scoring inputs: only the fields that are counted are loaded
+    @org.springframework.data.mongodb.repository.Query(value = "{ 'mechanicUserId': { '$in': ?0 }, 'status': ?1 }", fields = "{ 'mechanicUserId': 1 }")
+    List<RepairRequest> findLoadByMechanicUserIds(Collection<String> mechanicUserIds, String status);
+
+    @org.springframework.data.mongodb.repository.Query(value = "{ 'rejectedBy': { '$in': ?0 }, 'createdAt': { '$gt': ?1 } }", fields = "{ 'rejectedBy': 1 }")
+    List<RepairRequest> findRejectionsByMechanicUserIds(Collection<String> mechanicUserIds, LocalDateTime since);
+
     void deleteByClientId(String clientId);
     void deleteByMechanicUserId(String mechanicUserId);
 }
@@ -0,0 +1,53 @@
+package com.roadside.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.roadside.model.RepairRequest;
+import com.roadside.model.RequestStatus;
+
+// Conditional single-document updates that MongoRepository.save can't express atomically
+public interface RepairRequestRepositoryCustom {
+
+    // Single findAndModify: moves the request to `to` (recording statusChangedAt) if its status is one of `from`
+    // and it matches guard; changes are applied in the same write. Returns the updated request or null.
+    RepairRequest transition(String requestId, Collection<RequestStatus> from, RequestStatus to,
+                             Criteria guard, Update changes, LocalDateTime at);
+
+    // Moves a PENDING/SOS_PENDING request addressed or offered to the given shop to ACCEPTED and returns it,
+    // or null if it was already claimed, is not pending or belongs to another shop
+    RepairRequest claimPending(String requestId, String mechanicShopId, String mechanicUserId, LocalDateTime acceptedAt);
+
+    // Claims a whole broadcast for one of its requests by inserting {_id: broadcastId} into broadcast_claims.
+    // False if another request of the broadcast already holds it; the unique _id is the compare-and-set.
+    boolean claimBroadcast(String broadcastId, String requestId);
+
+    // Gives the broadcast back when the per-request claim that followed it failed
+    void releaseBroadcastClaim(String broadcastId, String requestId);
+
+    // Moves a still-PENDING/SOS_PENDING request to EXPIRED and returns it, or null if it was accepted/removed meanwhile
+    RepairRequest expireIfPending(String requestId, LocalDateTime now);
+
+    // Ids of PENDING/SOS_PENDING requests created before the cutoff, oldest first,
+    // restricted to createdAt millis % shardCount == shard when shardCount > 1
+    List<String> findExpirableIds(LocalDateTime cutoff, int limit, int shard, int shardCount);
+
+    // Id and createdAt of every PENDING/SOS_PENDING request in the shard, for the in-memory expiry registry
+    List<RepairRequest> findPendingCreatedAt(int shard, int shardCount);
+
+    // One updateMany of the still-pending ids to EXPIRED; returns the ones this call flipped (id + clientId only)
+    List<RepairRequest> expirePending(Collection<String> requestIds, LocalDateTime expiredAt);
+
+    // Sets rating/review on the client's own COMPLETED request; null if any of those conditions fail
+    RepairRequest rateCompleted(String requestId, String clientId, Integer rating, String review);
+
+    // $addToSet of the shops a dispatch wave was sent to
+    void addOffers(String requestId, Collection<String> shopIds);
+
+    // $addToSet of a mechanic who declined, leaving the status alone
+    void addRejection(String requestId, String mechanicUserId);
+}
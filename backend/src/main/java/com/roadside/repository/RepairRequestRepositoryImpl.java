@@ -0,0 +1,161 @@
+package com.roadside.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.roadside.model.RepairRequest;
+import com.roadside.model.RequestStatus;
+
+public class RepairRequestRepositoryImpl implements RepairRequestRepositoryCustom {
+
+    private static final String BROADCAST_CLAIMS = "broadcast_claims";
+
+    private static final Set<RequestStatus> PENDING_STATUSES = EnumSet.of(RequestStatus.PENDING, RequestStatus.SOS_PENDING);
+
+    private final MongoTemplate mongoTemplate;
+
+    public RepairRequestRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public RepairRequest transition(String requestId, Collection<RequestStatus> from, RequestStatus to,
+                                    Criteria guard, Update changes, LocalDateTime at) {
+        Criteria criteria = Criteria.where("_id").is(requestId).and("status").in(names(from));
+        Query query = new Query(guard != null ? new Criteria().andOperator(criteria, guard) : criteria);
+        Update update = statusUpdate(changes != null ? changes : new Update(), to, at);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), RepairRequest.class);
+    }
+
+    @Override
+    public RepairRequest claimPending(String requestId, String mechanicShopId, String mechanicUserId, LocalDateTime acceptedAt) {
+        // The status match is the compare-and-set: only one concurrent caller can see it pending
+        Criteria addressedToShop = new Criteria().orOperator(
+            Criteria.where("mechanicShopId").is(mechanicShopId),
+            Criteria.where("offeredShopIds").is(mechanicShopId)
+        );
+        Update update = new Update()
+            .set("mechanicShopId", mechanicShopId)
+            .set("mechanicUserId", mechanicUserId);
+
+        return transition(requestId, PENDING_STATUSES, RequestStatus.ACCEPTED, addressedToShop, update, acceptedAt);
+    }
+
+    @Override
+    public boolean claimBroadcast(String broadcastId, String requestId) {
+        Document claim = new Document("_id", broadcastId)
+            .append("requestId", requestId)
+            .append("createdAt", new Date());
+        try {
+            mongoTemplate.insert(claim, BROADCAST_CLAIMS);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void releaseBroadcastClaim(String broadcastId, String requestId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(broadcastId).and("requestId").is(requestId)), BROADCAST_CLAIMS);
+    }
+
+    @Override
+    public RepairRequest expireIfPending(String requestId, LocalDateTime now) {
+        return transition(requestId, PENDING_STATUSES, RequestStatus.EXPIRED, null, null, now);
+    }
+
+    @Override
+    public List<String> findExpirableIds(LocalDateTime cutoff, int limit, int shard, int shardCount) {
+        Criteria criteria = Criteria.where("status").in(names(PENDING_STATUSES)).and("createdAt").lt(cutoff);
+        Query query = new Query(inShard(criteria, shard, shardCount))
+            .with(Sort.by("createdAt"))
+            .limit(limit);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, RepairRequest.class).stream().map(RepairRequest::getId).toList();
+    }
+
+    @Override
+    public List<RepairRequest> findPendingCreatedAt(int shard, int shardCount) {
+        Query query = new Query(inShard(Criteria.where("status").in(names(PENDING_STATUSES)), shard, shardCount));
+        query.fields().include("_id").include("createdAt");
+        return mongoTemplate.find(query, RepairRequest.class);
+    }
+
+    // createdAt millis % shardCount == shard; everything is in shard 0 when there is only one
+    private static Criteria inShard(Criteria criteria, int shard, int shardCount) {
+        if (shardCount <= 1) {
+            return criteria;
+        }
+        return new Criteria().andOperator(criteria, Criteria.expr(() -> new Document("$eq", List.of(
+            new Document("$mod", List.of(new Document("$toLong", "$createdAt"), shardCount)), shard))));
+    }
+
+    @Override
+    public List<RepairRequest> expirePending(Collection<String> requestIds, LocalDateTime expiredAt) {
+        // updateMany doesn't return documents, so the ones it changed are found again by their expiredAt stamp;
+        // ids accepted between the read and this update keep their status and aren't returned
+        Query pending = new Query(Criteria.where("_id").in(requestIds).and("status").in(names(PENDING_STATUSES)));
+        Update update = statusUpdate(new Update(), RequestStatus.EXPIRED, expiredAt);
+        if (mongoTemplate.updateMulti(pending, update, RepairRequest.class).getModifiedCount() == 0) {
+            return List.of();
+        }
+
+        Query flipped = new Query(Criteria.where("_id").in(requestIds).and("status").is(RequestStatus.EXPIRED.name())
+            .and("expiredAt").is(expiredAt));
+        flipped.fields().include("_id").include("clientId");
+        return mongoTemplate.find(flipped, RepairRequest.class);
+    }
+
+    @Override
+    public RepairRequest rateCompleted(String requestId, String clientId, Integer rating, String review) {
+        Query query = new Query(Criteria.where("_id").is(requestId)
+            .and("clientId").is(clientId)
+            .and("status").is(RequestStatus.COMPLETED.name()));
+        Update update = new Update().set("rating", rating).set("review", review).set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), RepairRequest.class);
+    }
+
+    @Override
+    public void addOffers(String requestId, Collection<String> shopIds) {
+        Update update = new Update().addToSet("offeredShopIds").each(shopIds.toArray());
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(requestId)), update, RepairRequest.class);
+    }
+
+    @Override
+    public void addRejection(String requestId, String mechanicUserId) {
+        Update update = new Update().addToSet("rejectedBy", mechanicUserId).set("updatedAt", LocalDateTime.now());
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(requestId)), update, RepairRequest.class);
+    }
+
+    // Status change plus its timestamps; auditing doesn't run for these targeted updates, so updatedAt is set here
+    private static Update statusUpdate(Update update, RequestStatus to, LocalDateTime at) {
+        update.set("status", to.name())
+            .set("statusChangedAt." + to.name(), at)
+            .set("updatedAt", at);
+        // Dedicated fields the API already exposes
+        switch (to) {
+            case ACCEPTED -> update.set("acceptedAt", at);
+            case COMPLETED -> update.set("completedAt", at);
+            case EXPIRED -> update.set("expiredAt", at);
+            default -> { }
+        }
+        return update;
+    }
+
+    private static List<String> names(Collection<RequestStatus> statuses) {
+        return statuses.stream().map(RequestStatus::name).toList();
+    }
+}
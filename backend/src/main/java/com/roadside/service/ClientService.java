@@ -1,9 +1,6 @@
 package com.roadside.service;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.Objects;
 
 import org.slf4j.Logger;
@@ -14,10 +11,13 @@ import org.springframework.stereotype.Service;
 
 import com.roadside.dto.CreateRequestDTO;
 import com.roadside.dto.LocationDTO;
+import com.roadside.dto.ShopPin;
+import com.roadside.dto.ShopSearchCriteria;
 import com.roadside.model.MechanicShop;
 import com.roadside.model.RepairRequest;
 import com.roadside.repository.MechanicShopRepository;
 import com.roadside.repository.RepairRequestRepository;
+import com.roadside.util.OpeningHours;
 
 @Service
 public class ClientService {
@@ -27,54 +27,67 @@ public class ClientService {
     private final MechanicShopRepository mechanicShopRepository;
     private final RepairRequestRepository repairRequestRepository;
     private final WebSocketService webSocketService;
+    private final ShopSearchService shopSearchService;
+    private final ShopIndexService shopIndexService;
+    private final ShopCatalogService shopCatalogService;
+    private final DispatchService dispatchService;
+    private final PendingRequestRegistry pendingRequestRegistry;
 
-    public ClientService(MechanicShopRepository mechanicShopRepository, RepairRequestRepository repairRequestRepository, WebSocketService webSocketService) {
+    public ClientService(MechanicShopRepository mechanicShopRepository, RepairRequestRepository repairRequestRepository, WebSocketService webSocketService,
+                         ShopSearchService shopSearchService, ShopIndexService shopIndexService, ShopCatalogService shopCatalogService,
+                         DispatchService dispatchService, PendingRequestRegistry pendingRequestRegistry) {
         this.mechanicShopRepository = mechanicShopRepository;
         this.repairRequestRepository = repairRequestRepository;
         this.webSocketService = webSocketService;
+        this.shopSearchService = shopSearchService;
+        this.shopIndexService = shopIndexService;
+        this.shopCatalogService = shopCatalogService;
+        this.dispatchService = dispatchService;
+        this.pendingRequestRegistry = pendingRequestRegistry;
     }
     
     @Value("${geospatial.default-radius}")
     private Double defaultRadius;
     
-    public List<MechanicShop> getNearbyShops(LocationDTO location, Double radius, String shopType) {
+    @Value("${geospatial.adaptive.sos-target:20}")
+    private int sosTargetShops;
+    
+    @Value("${dispatch.enabled:true}")
+    private boolean dispatchEnabled;
+    
+    public List<MechanicShop> getNearbyShops(LocationDTO location, Double radius, String shopType, boolean openNow) {
+        // Distance is populated and results are sorted nearest first
+        return shopSearchService.findNearby(nearbyCriteria(location, radius, shopType, openNow));
+    }
+    
+    public List<ShopPin> getNearbyShopPins(LocationDTO location, Double radius, String shopType, boolean openNow) {
+        return shopSearchService.findNearbyPins(nearbyCriteria(location, radius, shopType, openNow));
+    }
+    
+    // Adaptive variant: the radius expands until k shops are found or max-radius is reached
+    public List<MechanicShop> getNearestShops(LocationDTO location, String shopType, boolean openNow, Integer k) {
+        return shopSearchService.findNearest(nearbyCriteria(location, null, shopType, openNow), nearestCount(k));
+    }
+    
+    public List<ShopPin> getNearestShopPins(LocationDTO location, String shopType, boolean openNow, Integer k) {
+        return shopSearchService.findNearestPins(nearbyCriteria(location, null, shopType, openNow), nearestCount(k));
+    }
+    
+    private int nearestCount(Integer k) {
+        return (k != null && k > 0) ? Math.min(k, 100) : shopSearchService.getDefaultNearestCount();
+    }
+    
+    private ShopSearchCriteria nearbyCriteria(LocationDTO location, Double radius, String shopType, boolean openNow) {
         double searchRadius = (radius != null) ? radius : defaultRadius;
-        
-        List<MechanicShop> shops;
-        
-        if (shopType != null && !shopType.isEmpty()) {
-            shops = mechanicShopRepository.findNearbyShopsByTypeAll(
-                location.getLatitude(),
-                location.getLongitude(),
-                searchRadius,
-                shopType
-            );
-        } else {
-            shops = mechanicShopRepository.findNearbyShopsAll(
-                location.getLatitude(),
-                location.getLongitude(),
-                searchRadius
-            );
-        }
-        
-        // Calculate distance and check if shop is currently open
-        return shops.stream()
-            .filter(shop -> shop.getLocation() != null)
-            .map(shop -> {
-            double distance = calculateDistance(
-                location.getLatitude(),
-                location.getLongitude(),
-                shop.getLocation().getY(),
-                shop.getLocation().getX()
-            );
-            shop.setDistance(distance);
-            return shop;
-        }).sorted((a, b) -> Double.compare(a.getDistance(), b.getDistance()))
-          .collect(Collectors.toList());
+        ShopSearchCriteria criteria = new ShopSearchCriteria(location.getLatitude(), location.getLongitude(), searchRadius);
+        criteria.setShopType(shopType);
+        criteria.setIncludeUnavailable(true);
+        criteria.setOpenNow(openNow);
+        return criteria;
     }
     
-    public List<MechanicShop> getAllShops() {
-        return mechanicShopRepository.findAll();
+    public ShopCatalogService.CatalogPayload getShopCatalog(boolean fullView) {
+        return shopCatalogService.getCatalog(fullView);
     }
     
     public RepairRequest createRequest(String clientId, CreateRequestDTO request) {
@@ -98,6 +111,7 @@ public class ClientService {
         RepairRequest saved = repairRequestRepository.save(repairRequest);
         
         log.info("Repair request created: {} for client: {}", saved.getId(), clientId);
+        pendingRequestRegistry.register(saved);
         
         // Notify mechanic via WebSocket
         String shopId = request.getMechanicShopId();
@@ -130,16 +144,27 @@ public class ClientService {
         sosRequest.setProblemDescription("SOS Emergency Request");
         
         RepairRequest saved = repairRequestRepository.save(sosRequest);
+        pendingRequestRegistry.register(saved);
         
         log.warn("SOS request created: {} at location: {}", saved.getId(), address);
         
-        // Broadcast to all nearby mechanics (extended radius for SOS)
-        List<MechanicShop> nearbyShops = mechanicShopRepository.findNearbyShops(
+        if (dispatchEnabled) {
+            // Offered to the best-ranked shops a few at a time until one accepts
+            dispatchService.dispatch(saved);
+            return saved;
+        }
+        
+        // Broadcast to the nearest mechanics; the search widens in sparse areas instead of a fixed 20km
+        List<MechanicShop> nearbyShops = shopSearchService.findNearest(new ShopSearchCriteria(
             location.getLatitude(),
             location.getLongitude(),
-            20000.0 // 20km for SOS
-        );
+            defaultRadius
+        ), sosTargetShops);
         
+        // Recorded before the alert goes out so the alerted shops can accept
+        if (!nearbyShops.isEmpty()) {
+            repairRequestRepository.addOffers(saved.getId(), nearbyShops.stream().map(MechanicShop::getId).toList());
+        }
         for (MechanicShop shop : nearbyShops) {
             webSocketService.sendToUser(shop.getUserId(), "SOS_ALERT", saved);
         }
@@ -156,67 +181,37 @@ public class ClientService {
     
     public void rateRequest(String clientId, String requestId, Integer rating, String review) {
         Objects.requireNonNull(requestId, "requestId must not be null");
-        RepairRequest request = repairRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        
-        if (!request.getClientId().equals(clientId)) {
+        // Ownership and status are checked by the update itself
+        RepairRequest request = repairRequestRepository.rateCompleted(requestId, clientId, rating, review);
+        if (request == null) {
+            RepairRequest existing = repairRequestRepository.findStatusById(requestId);
+            if (existing == null) {
+                throw new RuntimeException("Request not found");
+            }
+            if (!"COMPLETED".equals(existing.getStatus())) {
+                throw new RuntimeException("Can only rate completed requests");
+            }
             throw new RuntimeException("You are not authorized to rate this request");
         }
         
-        if (!"COMPLETED".equals(request.getStatus())) {
-            throw new RuntimeException("Can only rate completed requests");
-        }
-        
-        request.setRating(rating);
-        request.setReview(review);
-        repairRequestRepository.save(request);
-        
         // Update mechanic shop rating
         updateShopRating(request.getMechanicShopId(), rating);
     }
     
     private void updateShopRating(String shopId, Integer newRating) {
         if (shopId == null) return;
-        MechanicShop shop = mechanicShopRepository.findById(shopId)
-                .orElseThrow(() -> new RuntimeException("Shop not found"));
-        
-        int totalRatings = shop.getTotalRatings();
-        double currentRating = shop.getRating();
-        
-        double updatedRating = ((currentRating * totalRatings) + newRating) / (totalRatings + 1);
-        
-        shop.setRating(updatedRating);
-        shop.setTotalRatings(totalRatings + 1);
-        
-        mechanicShopRepository.save(shop);
-    }
-    
-    // Haversine formula for distance calculation
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371000; // Earth radius in meters
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c; // Distance in meters
+        MechanicShop shop = mechanicShopRepository.addRating(shopId, newRating);
+        if (shop == null) {
+            throw new RuntimeException("Shop not found");
+        }
+        shopIndexService.upsert(shop);
     }
     
     public boolean isShopOpen(String openTime, String closeTime) {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-            LocalTime open = LocalTime.parse(openTime, formatter);
-            LocalTime close = LocalTime.parse(closeTime, formatter);
-            LocalTime now = LocalTime.now();
-            
-            return now.isAfter(open) && now.isBefore(close);
-        } catch (Exception e) {
-            return true; // Default to open if parsing fails
-        }
+        return OpeningHours.isOpen(
+            OpeningHours.toMinuteOfDay(openTime),
+            OpeningHours.toMinuteOfDay(closeTime),
+            OpeningHours.currentMinuteOfDay()
+        );
     }
 }
@@ -0,0 +1,296 @@
+package com.roadside.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+import com.roadside.model.RepairRequest;
+import com.roadside.repository.RepairRequestRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Offers open requests to mechanics in timed waves instead of alerting every shop at once.
+ * Candidates are ranked in memory by distance, rating, availability, current active-job
+ * load and recent rejections; each wave goes to the next few best shops until someone
+ * accepts or the request leaves its pending state. Once the candidates run out the last wave
+ * stays open and PendingRequestRegistry expires the request on its normal deadline; it is
+ * expired early only when there were no candidates at all or every offered shop declined.
+ * A request whose dispatch is lost on restart is still expired on its deadline by
+ * PendingRequestRegistry and the sweep.
+ * Runs on its own scheduler so request threads only pay for the initial hand-off.
+ */
+@Service
+public class DispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchService.class);
+
+    private final RepairRequestRepository repairRequestRepository;
+    private final ShopSearchService shopSearchService;
+    private final WebSocketService webSocketService;
+    private final PendingRequestRegistry pendingRequestRegistry;
+    private final ScheduledExecutorService executor;
+
+    // Requests currently being offered, by request id
+    private final Map<String, Dispatch> active = new ConcurrentHashMap<>();
+
+    @Value("${dispatch.candidate-pool:20}")
+    private int candidatePool;
+
+    @Value("${dispatch.wave-size:3}")
+    private int waveSize;
+
+    @Value("${dispatch.wave-interval-ms:20000}")
+    private long waveIntervalMs;
+
+    @Value("${dispatch.rejection-lookback-days:7}")
+    private int rejectionLookbackDays;
+
+    @Value("${dispatch.weights.distance:0.45}")
+    private double distanceWeight;
+
+    @Value("${dispatch.weights.rating:0.25}")
+    private double ratingWeight;
+
+    @Value("${dispatch.weights.availability:0.3}")
+    private double availabilityWeight;
+
+    @Value("${dispatch.weights.load:0.15}")
+    private double loadWeight;
+
+    @Value("${dispatch.weights.rejections:0.05}")
+    private double rejectionWeight;
+
+    @Value("${geospatial.max-radius}")
+    private double maxRadius;
+
+    public DispatchService(RepairRequestRepository repairRequestRepository,
+                           ShopSearchService shopSearchService,
+                           WebSocketService webSocketService,
+                           PendingRequestRegistry pendingRequestRegistry,
+                           @Value("${dispatch.threads:2}") int threads) {
+        this.repairRequestRepository = repairRequestRepository;
+        this.shopSearchService = shopSearchService;
+        this.webSocketService = webSocketService;
+        this.pendingRequestRegistry = pendingRequestRegistry;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Starts offering a saved request; returns immediately
+    public void dispatch(RepairRequest request) {
+        executor.execute(() -> {
+            try {
+                start(request);
+            } catch (Exception e) {
+                log.error("Dispatch failed for request {}: {}", request.getId(), e.getMessage());
+            }
+        });
+    }
+
+    // Called after a mechanic declines; moves on early once the whole current wave has declined
+    public void onRejected(String requestId, String mechanicUserId) {
+        Dispatch dispatch = active.get(requestId);
+        if (dispatch == null) {
+            return;
+        }
+        synchronized (dispatch) {
+            dispatch.rejectedBy.add(mechanicUserId);
+            if (dispatch.currentWave.isEmpty() || !dispatch.rejectedBy.containsAll(dispatch.currentWave)) {
+                return;
+            }
+            // If the timer already fired, that run offers the next wave instead
+            if (dispatch.nextWave == null || !dispatch.nextWave.cancel(false)) {
+                return;
+            }
+        }
+        executor.execute(() -> offerNextWave(requestId));
+    }
+
+    private void start(RepairRequest request) {
+        ShopSearchCriteria criteria = new ShopSearchCriteria(
+            request.getClientLocation().getY(),
+            request.getClientLocation().getX(),
+            maxRadius
+        );
+        // Unavailable shops are still candidates, they just rank last
+        criteria.setIncludeUnavailable(true);
+        List<MechanicShop> candidates = shopSearchService.findNearest(criteria, candidatePool);
+
+        Dispatch dispatch = new Dispatch(rank(candidates));
+        if (request.getRejectedBy() != null) {
+            dispatch.rejectedBy.addAll(request.getRejectedBy());
+        }
+        active.put(request.getId(), dispatch);
+        log.info("Dispatching request {} to {} ranked candidates", request.getId(), dispatch.ranked.size());
+        offerNextWave(request.getId());
+    }
+
+    private List<MechanicShop> rank(List<MechanicShop> candidates) {
+        Set<String> mechanicIds = new HashSet<>();
+        for (MechanicShop shop : candidates) {
+            if (shop.getUserId() != null) {
+                mechanicIds.add(shop.getUserId());
+            }
+        }
+        if (mechanicIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Two batched reads; everything after this is in memory
+        Map<String, Integer> load = new HashMap<>();
+        for (RepairRequest job : repairRequestRepository.findLoadByMechanicUserIds(mechanicIds, "ACCEPTED")) {
+            load.merge(job.getMechanicUserId(), 1, Integer::sum);
+        }
+        Map<String, Integer> rejections = new HashMap<>();
+        LocalDateTime since = LocalDateTime.now().minusDays(rejectionLookbackDays);
+        for (RepairRequest rejected : repairRequestRepository.findRejectionsByMechanicUserIds(mechanicIds, since)) {
+            for (String userId : rejected.getRejectedBy()) {
+                if (mechanicIds.contains(userId)) {
+                    rejections.merge(userId, 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        List<MechanicShop> ranked = new ArrayList<>();
+        for (MechanicShop shop : candidates) {
+            if (shop.getUserId() == null) {
+                continue;
+            }
+            scores.put(shop.getId(), score(shop, load.getOrDefault(shop.getUserId(), 0),
+                rejections.getOrDefault(shop.getUserId(), 0)));
+            ranked.add(shop);
+        }
+        ranked.sort(Comparator.comparingDouble((MechanicShop shop) -> scores.get(shop.getId())).reversed());
+        return ranked;
+    }
+
+    private double score(MechanicShop shop, int activeJobs, int recentRejections) {
+        double proximity = 1 - Math.min(shop.getDistance() / maxRadius, 1);
+        double rating = shop.getRating() != null ? shop.getRating() / 5 : 0;
+        double available = Boolean.TRUE.equals(shop.getIsAvailable()) ? 1 : 0;
+        // Both penalties saturate so one busy or picky shop isn't pushed below unavailable ones
+        double busy = Math.min(activeJobs, 3) / 3.0;
+        double picky = Math.min(recentRejections, 5) / 5.0;
+        return distanceWeight * proximity + ratingWeight * rating + availabilityWeight * available
+            - loadWeight * busy - rejectionWeight * picky;
+    }
+
+    private void offerNextWave(String requestId) {
+        Dispatch dispatch = active.get(requestId);
+        if (dispatch == null) {
+            return;
+        }
+        try {
+            // One read per wave tells us whether someone accepted or the request expired meanwhile
+            RepairRequest request = repairRequestRepository.findById(requestId).orElse(null);
+            if (request == null || (!"SOS_PENDING".equals(request.getStatus()) && !"PENDING".equals(request.getStatus()))) {
+                active.remove(requestId);
+                return;
+            }
+
+            List<MechanicShop> wave = new ArrayList<>();
+            boolean expireNow = false;
+            synchronized (dispatch) {
+                if (request.getRejectedBy() != null) {
+                    dispatch.rejectedBy.addAll(request.getRejectedBy());
+                }
+                while (dispatch.position < dispatch.ranked.size() && wave.size() < waveSize) {
+                    MechanicShop shop = dispatch.ranked.get(dispatch.position++);
+                    if (!dispatch.rejectedBy.contains(shop.getUserId())) {
+                        wave.add(shop);
+                    }
+                }
+                if (wave.isEmpty()) {
+                    if (dispatch.waves == 0 || dispatch.rejectedBy.containsAll(dispatch.offered)) {
+                        active.remove(requestId);
+                        expireNow = true;
+                    } else {
+                        if (!dispatch.exhausted) {
+                            dispatch.exhausted = true;
+                            log.info("Dispatch for request {} ran out of candidates after {} waves; last wave stays open", requestId, dispatch.waves);
+                        }
+                        // Keep checking until it's answered, fully declined, or expired by the registry
+                        dispatch.nextWave = executor.schedule(() -> offerNextWave(requestId), waveIntervalMs, TimeUnit.MILLISECONDS);
+                    }
+                } else {
+                    dispatch.waves++;
+                    dispatch.currentWave.clear();
+                    wave.forEach(shop -> dispatch.currentWave.add(shop.getUserId()));
+                    dispatch.offered.addAll(dispatch.currentWave);
+                    dispatch.nextWave = executor.schedule(() -> offerNextWave(requestId), waveIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (expireNow) {
+                expireExhausted(requestId, dispatch.waves);
+                return;
+            }
+            if (wave.isEmpty()) {
+                return;
+            }
+
+            // Recorded before the alert goes out so the offered shops can accept
+            repairRequestRepository.addOffers(requestId, wave.stream().map(MechanicShop::getId).toList());
+            String eventType = "SOS".equals(request.getType()) ? "SOS_ALERT" : "NEW_REQUEST";
+            for (MechanicShop shop : wave) {
+                webSocketService.sendToUser(shop.getUserId(), eventType, request);
+            }
+            log.info("Request {} wave {} offered to {} shops", requestId, dispatch.waves, wave.size());
+        } catch (Exception e) {
+            log.error("Dispatch wave failed for request {}: {}", requestId, e.getMessage());
+        }
+    }
+
+    // No shop can still answer (none found, or all offered ones declined), so the client hears now instead of at the deadline
+    private void expireExhausted(String requestId, int waves) {
+        pendingRequestRegistry.remove(requestId);
+        RepairRequest expired = repairRequestRepository.expireIfPending(requestId, LocalDateTime.now());
+        if (expired != null) {
+            webSocketService.sendToUser(expired.getClientId(), "REQUEST_EXPIRED", expired);
+            log.info("Request {} expired: {}", requestId, waves == 0 ? "no dispatch candidates" : "every offered shop declined");
+        }
+    }
+
+    private static final class Dispatch {
+        private final List<MechanicShop> ranked;
+        private final Set<String> rejectedBy = new HashSet<>();
+        private final Set<String> currentWave = new HashSet<>();
+        private final Set<String> offered = new HashSet<>();
+        private int position;
+        private int waves;
+        private boolean exhausted;
+        private ScheduledFuture<?> nextWave;
+
+        Dispatch(List<MechanicShop> ranked) {
+            this.ranked = ranked;
+        }
+    }
+}
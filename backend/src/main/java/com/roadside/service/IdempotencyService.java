@@ -0,0 +1,251 @@
+package com.roadside.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.roadside.exception.IdempotencyConflictException;
+import com.roadside.exception.IdempotencyKeyMismatchException;
+import com.roadside.model.RepairRequest;
+import com.roadside.repository.RepairRequestRepository;
+
+/**
+ * Makes request creation safe to retry. A client-supplied Idempotency-Key is claimed by
+ * inserting a document into the idempotency_keys collection (TTL-indexed on createdAt, see
+ * MongoConfig); the insert's unique _id means only one submit does the work. Once it finishes
+ * the key records the created request ids (one, or one per shop for a broadcast), and later
+ * submits with the same key get those requests back without creating or alerting anything. The key also records a hash of the request body,
+ * so reusing a key for a different request is rejected instead of replaying the wrong one.
+ * Completed keys are also kept in a small local cache so replays on the same node skip the round trip.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String COLLECTION = "idempotency_keys";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String DONE = "DONE";
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final MongoTemplate mongoTemplate;
+    private final RepairRequestRepository repairRequestRepository;
+    // Sorted map keys, so the same body always hashes the same
+    private final ObjectWriter fingerprintWriter;
+
+    // key -> created request ids and body hash, LRU ordered
+    private final Map<String, CachedResult> cache = new LinkedHashMap<>(256, 0.75f, true);
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.in-progress-timeout-ms:30000}")
+    private long inProgressTimeoutMs;
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int maxCacheEntries;
+
+    public IdempotencyService(MongoTemplate mongoTemplate, RepairRequestRepository repairRequestRepository,
+                              ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.repairRequestRepository = repairRequestRepository;
+        this.fingerprintWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * Runs action once per (scope, user, key). Without a key the action just runs.
+     * Throws IdempotencyConflictException while another submit with the same key is still running,
+     * and IdempotencyKeyMismatchException if the key was first used with a different body.
+     */
+    public RepairRequest execute(String scope, String userId, String idempotencyKey, Object body,
+                                 Supplier<RepairRequest> action) {
+        List<RepairRequest> result = executeAll(scope, userId, idempotencyKey, body, () -> List.of(action.get()));
+        return result.get(0);
+    }
+
+    // Same as execute for actions that create several requests at once, e.g. a broadcast
+    public List<RepairRequest> executeAll(String scope, String userId, String idempotencyKey, Object body,
+                                          Supplier<List<RepairRequest>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        // Keys are per user and endpoint, so clients can't collide with or read each other's results
+        String key = scope + ":" + userId + ":" + idempotencyKey;
+        String fingerprint = fingerprint(body);
+
+        CachedResult cached = getCached(key);
+        if (cached != null) {
+            checkFingerprint(cached.fingerprint, fingerprint);
+            List<RepairRequest> original = findInOrder(cached.requestIds);
+            if (!original.isEmpty()) {
+                return original;
+            }
+        }
+
+        if (!claim(key, fingerprint)) {
+            Document existing = mongoTemplate.findById(key, Document.class, COLLECTION);
+            if (existing != null) {
+                checkFingerprint(existing.getString("fingerprint"), fingerprint);
+            }
+            if (existing != null && DONE.equals(existing.getString("status"))) {
+                List<String> requestIds = storedRequestIds(existing);
+                putCached(key, requestIds, fingerprint);
+                log.info("Replaying {} for user {} with existing requests {}", scope, userId, requestIds);
+                List<RepairRequest> original = findInOrder(requestIds);
+                if (original.isEmpty()) {
+                    throw new RuntimeException("Request not found");
+                }
+                return original;
+            }
+            // Claimed by a submit that is still running, unless that one died and its claim went stale
+            if (existing == null || !takeOver(key)) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is already being processed");
+            }
+        }
+
+        List<RepairRequest> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            // Failed attempts don't count; let the client retry with the same key
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(key)), COLLECTION);
+            throw e;
+        }
+
+        List<String> requestIds = result.stream().map(RepairRequest::getId).toList();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(key)),
+                new Update().set("status", DONE).set("requestIds", requestIds), COLLECTION);
+        putCached(key, requestIds, fingerprint);
+        return result;
+    }
+
+    // Keys written before broadcasts were covered hold a single requestId
+    private static List<String> storedRequestIds(Document existing) {
+        List<String> requestIds = existing.getList("requestIds", String.class);
+        if (requestIds != null) {
+            return requestIds;
+        }
+        String requestId = existing.getString("requestId");
+        return requestId != null ? List.of(requestId) : List.of();
+    }
+
+    // One read; siblings deleted since (e.g. after a broadcast was accepted) are simply left out
+    private List<RepairRequest> findInOrder(List<String> requestIds) {
+        Map<String, RepairRequest> byId = new LinkedHashMap<>();
+        for (RepairRequest request : repairRequestRepository.findAllById(requestIds)) {
+            byId.put(request.getId(), request);
+        }
+        List<RepairRequest> ordered = new ArrayList<>();
+        for (String requestId : requestIds) {
+            RepairRequest request = byId.get(requestId);
+            if (request != null) {
+                ordered.add(request);
+            }
+        }
+        return ordered;
+    }
+
+    private String fingerprint(Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprintWriter.writeValueAsBytes(body));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to hash request body", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Keys stored before fingerprints were recorded have none and are accepted as they are
+    private static void checkFingerprint(String stored, String fingerprint) {
+        if (stored != null && !stored.equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException("This Idempotency-Key was already used with a different request body");
+        }
+    }
+
+    private boolean claim(String key, String fingerprint) {
+        Document claim = new Document("_id", key)
+                .append("status", IN_PROGRESS)
+                .append("fingerprint", fingerprint)
+                .append("createdAt", new Date());
+        try {
+            mongoTemplate.insert(claim, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean takeOver(String key) {
+        Date now = new Date();
+        Query stale = new Query(Criteria.where("_id").is(key)
+                .and("status").is(IN_PROGRESS)
+                .and("createdAt").lt(new Date(now.getTime() - inProgressTimeoutMs)));
+        return mongoTemplate.updateFirst(stale, new Update().set("createdAt", now), COLLECTION).getModifiedCount() > 0;
+    }
+
+    private CachedResult getCached(String key) {
+        synchronized (cache) {
+            CachedResult cached = cache.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt < System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void putCached(String key, List<String> requestIds, String fingerprint) {
+        long expiresAt = System.currentTimeMillis() + ttlHours * 3_600_000L;
+        synchronized (cache) {
+            cache.put(key, new CachedResult(requestIds, fingerprint, expiresAt));
+            Iterator<String> eldest = cache.keySet().iterator();
+            while (cache.size() > maxCacheEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static final class CachedResult {
+        private final List<String> requestIds;
+        private final String fingerprint;
+        private final long expiresAt;
+
+        CachedResult(List<String> requestIds, String fingerprint, long expiresAt) {
+            this.requestIds = requestIds;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
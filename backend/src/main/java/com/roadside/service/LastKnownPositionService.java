@@ -0,0 +1,117 @@
+package com.roadside.service;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import com.roadside.model.LocationTracking;
+
+/**
+ * Latest location frame per request, kept in memory so tracking screens can show the mechanic
+ * immediately: it is served by REST and pushed as the first frame when a client subscribes to
+ * /topic/location/{requestId}. Updated by every ping, evicted when the request reaches a
+ * terminal status (or goes quiet for the configured TTL).
+ */
+@Service
+public class LastKnownPositionService {
+
+    private static final Logger log = LoggerFactory.getLogger(LastKnownPositionService.class);
+
+    public static final String TOPIC_PREFIX = "/topic/location/";
+
+    private final LocationHistoryService locationHistoryService;
+    private final WebSocketService webSocketService;
+    private final Map<String, Entry> positions = new ConcurrentHashMap<>();
+
+    @Value("${location.last-known.ttl-ms:7200000}")
+    private long ttlMs;
+
+    public LastKnownPositionService(LocationHistoryService locationHistoryService,
+                                    WebSocketService webSocketService) {
+        this.locationHistoryService = locationHistoryService;
+        this.webSocketService = webSocketService;
+    }
+
+    // Same shape as the frames broadcast on /topic/location/{requestId}
+    public static Map<String, Object> toFrame(LocationTracking tracking) {
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("requestId", tracking.getRequestId());
+        frame.put("location", Map.of("latitude", tracking.getLocation().getY(), "longitude", tracking.getLocation().getX()));
+        frame.put("speed", tracking.getSpeed());
+        frame.put("heading", tracking.getHeading());
+        frame.put("timestamp", tracking.getTimestamp() != null
+            ? tracking.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : System.currentTimeMillis());
+        return frame;
+    }
+
+    public void update(String requestId, Map<String, Object> frame) {
+        if (requestId != null) {
+            positions.put(requestId, new Entry(frame, System.currentTimeMillis()));
+        }
+    }
+
+    // In memory first; after a restart (or on another replica) falls back to the latest stored sample.
+    // The fallback isn't cached: the request may already be finished, and only pings repopulate the map.
+    public Map<String, Object> get(String requestId) {
+        Entry entry = positions.get(requestId);
+        if (entry != null) {
+            return entry.frame;
+        }
+        return locationHistoryService.findLatest(requestId)
+            .map(LastKnownPositionService::toFrame)
+            .orElse(null);
+    }
+
+    public void evict(String requestId) {
+        if (requestId != null && positions.remove(requestId) != null) {
+            log.debug("Evicted last known position for request {}", requestId);
+        }
+    }
+
+    // Sends the current position to a new subscriber only, so it doesn't wait for the next ping.
+    // Memory only: this runs on the inbound channel thread, which must not wait on Mongo.
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return;
+        }
+        Entry entry = positions.get(destination.substring(TOPIC_PREFIX.length()));
+        if (entry != null) {
+            webSocketService.sendToSubscription(accessor.getSessionId(), accessor.getSubscriptionId(), destination, entry.frame);
+        }
+    }
+
+    // Requests that never reach a terminal status (crash, stuck job) don't stay in memory forever
+    @Scheduled(fixedDelayString = "${location.last-known.cleanup-interval-ms:600000}")
+    public void evictStale() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        positions.entrySet().removeIf(e -> e.getValue().updatedAt < cutoff);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    private static final class Entry {
+        private final Map<String, Object> frame;
+        private final long updatedAt;
+
+        Entry(Map<String, Object> frame, long updatedAt) {
+            this.frame = frame;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
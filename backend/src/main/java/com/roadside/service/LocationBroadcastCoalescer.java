@@ -0,0 +1,184 @@
+package com.roadside.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.roadside.util.GeoUtils;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Thins the live location stream before it goes to /topic/location/{requestId}.
+ * Pings that moved less than min-distance and turned less than min-heading-delta since the
+ * last sent frame are dropped; the rest are sent at most max-fps times per second per request,
+ * with only the newest sample of each window going out when the window closes.
+ * Raw samples are unaffected: persistence and the last-known position see every ping.
+ */
+@Service
+public class LocationBroadcastCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationBroadcastCoalescer.class);
+
+    private final WebSocketService webSocketService;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    @Value("${location.broadcast.enabled:true}")
+    private boolean enabled;
+
+    @Value("${location.broadcast.min-distance-meters:5}")
+    private double minDistanceMeters;
+
+    @Value("${location.broadcast.min-heading-delta:15}")
+    private double minHeadingDelta;
+
+    @Value("${location.broadcast.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    private final long windowMs;
+
+    // Metrics
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LocationBroadcastCoalescer(WebSocketService webSocketService,
+                                      @Value("${location.broadcast.max-fps:2}") double maxFps) {
+        this.webSocketService = webSocketService;
+        this.windowMs = (long) Math.ceil(1000 / maxFps);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public void submit(String requestId, Map<String, Object> frame, double latitude, double longitude, Double heading) {
+        received.incrementAndGet();
+        if (!enabled) {
+            send(requestId, frame);
+            return;
+        }
+
+        Topic topic = topics.computeIfAbsent(requestId, id -> new Topic());
+        Sample sample = new Sample(frame, latitude, longitude, heading);
+        synchronized (topic) {
+            topic.touchedAt = System.currentTimeMillis();
+            if (topic.lastSent != null && !movedEnough(topic.lastSent, sample)) {
+                suppressed.incrementAndGet();
+                return;
+            }
+            if (topic.pending != null) {
+                // Replaced before its window closed
+                suppressed.incrementAndGet();
+            }
+            topic.pending = sample;
+
+            long wait = topic.lastSentAt + windowMs - System.currentTimeMillis();
+            if (wait <= 0) {
+                flush(requestId, topic);
+            } else if (!topic.flushScheduled) {
+                topic.flushScheduled = true;
+                scheduler.schedule(() -> {
+                    synchronized (topic) {
+                        topic.flushScheduled = false;
+                        flush(requestId, topic);
+                    }
+                }, wait, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Request finished; nothing more will be sent for it
+    public void evict(String requestId) {
+        if (requestId != null) {
+            topics.remove(requestId);
+        }
+    }
+
+    // Caller holds the topic lock
+    private void flush(String requestId, Topic topic) {
+        Sample sample = topic.pending;
+        if (sample == null) {
+            return;
+        }
+        topic.pending = null;
+        topic.lastSent = sample;
+        topic.lastSentAt = System.currentTimeMillis();
+        send(requestId, sample.frame);
+    }
+
+    private void send(String requestId, Map<String, Object> frame) {
+        try {
+            webSocketService.sendLocationUpdate(requestId, frame);
+            sent.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Failed to broadcast location for request {}: {}", requestId, e.getMessage());
+        }
+    }
+
+    private boolean movedEnough(Sample last, Sample next) {
+        double distance = GeoUtils.distanceMeters(last.latitude, last.longitude, next.latitude, next.longitude);
+        if (distance >= minDistanceMeters) {
+            return true;
+        }
+        if (last.heading == null || next.heading == null) {
+            return false;
+        }
+        double turn = Math.abs(last.heading - next.heading) % 360;
+        return Math.min(turn, 360 - turn) >= minHeadingDelta;
+    }
+
+    // Topics of requests that stopped pinging without finishing
+    @Scheduled(fixedDelayString = "${location.broadcast.cleanup-interval-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        topics.entrySet().removeIf(e -> e.getValue().touchedAt < cutoff);
+    }
+
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "received", received.get(),
+            "sent", sent.get(),
+            "suppressed", suppressed.get(),
+            "activeTopics", topics.size()
+        );
+    }
+
+    private static final class Topic {
+        private Sample lastSent;
+        private long lastSentAt;
+        private Sample pending;
+        private boolean flushScheduled;
+        private volatile long touchedAt;
+    }
+
+    private static final class Sample {
+        private final Map<String, Object> frame;
+        private final double latitude;
+        private final double longitude;
+        private final Double heading;
+
+        Sample(Map<String, Object> frame, double latitude, double longitude, Double heading) {
+            this.frame = frame;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.heading = heading;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.roadside.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.roadside.model.LocationTracking;
+import com.roadside.repository.LocationTimeSeriesRepository;
+import com.roadside.repository.LocationTrackingRepository;
+
+/**
+ * Where location history lives. By default samples go to the location_tracking collection;
+ * with location.storage.time-series enabled they go to the location_tracks time-series
+ * collection instead. Switching over: enable time-series (new writes move immediately, reads
+ * fall back to the old collection for requests that have no time-series data yet) and leave
+ * location.storage.migrate on so one replica copies the existing samples across in batches.
+ */
+@Service
+public class LocationHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationHistoryService.class);
+
+    private static final String MIGRATION_ID = "location_tracking_to_timeseries";
+    private static final String MIGRATION_LOCK = "location-timeseries-migration";
+
+    private final LocationTrackingRepository locationTrackingRepository;
+    private final LocationTimeSeriesRepository locationTimeSeriesRepository;
+    private final MongoTemplate mongoTemplate;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${location.storage.time-series:false}")
+    private boolean timeSeries;
+
+    @Value("${location.storage.migrate:true}")
+    private boolean migrate;
+
+    @Value("${location.storage.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${location.storage.migration-batch-size:1000}")
+    private int migrationBatchSize;
+
+    // Renewed after every batch, so it only needs to outlast one batch
+    @Value("${location.storage.migration-lease-ms:600000}")
+    private long migrationLeaseMs;
+
+    public LocationHistoryService(LocationTrackingRepository locationTrackingRepository,
+                                  LocationTimeSeriesRepository locationTimeSeriesRepository,
+                                  MongoTemplate mongoTemplate,
+                                  SchedulerLockService schedulerLockService) {
+        this.locationTrackingRepository = locationTrackingRepository;
+        this.locationTimeSeriesRepository = locationTimeSeriesRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.schedulerLockService = schedulerLockService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!timeSeries) {
+            return;
+        }
+        try {
+            locationTimeSeriesRepository.ensureCollection(ttlSeconds);
+        } catch (Exception e) {
+            log.error("Failed to prepare time-series collection: {}", e.getMessage());
+            return;
+        }
+        if (migrate) {
+            Thread thread = new Thread(this::migrate, "location-migration");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public boolean isTimeSeries() {
+        return timeSeries;
+    }
+
+    // Batch write from the ingest queue (insertMany either way)
+    public void saveAll(List<LocationTracking> batch) {
+        if (timeSeries) {
+            locationTimeSeriesRepository.insertAll(batch);
+        } else {
+            locationTrackingRepository.insert(batch);
+        }
+    }
+
+    public Optional<LocationTracking> findLatest(String requestId) {
+        if (timeSeries) {
+            Optional<LocationTracking> latest = locationTimeSeriesRepository.findLatest(requestId);
+            if (latest.isPresent()) {
+                return latest;
+            }
+        }
+        return locationTrackingRepository.findFirstByRequestIdOrderByTimestampDesc(requestId);
+    }
+
+    // Oldest first
+    public List<LocationTracking> findTrack(String requestId) {
+        if (timeSeries) {
+            List<LocationTracking> track = locationTimeSeriesRepository.findTrack(requestId, null, null);
+            if (!track.isEmpty()) {
+                return track;
+            }
+        }
+        List<LocationTracking> track = new ArrayList<>(locationTrackingRepository.findByRequestIdOrderByTimestampDesc(requestId));
+        Collections.reverse(track);
+        return track;
+    }
+
+    // Oldest first, read through a cursor; the caller must close the stream
+    public Stream<LocationTracking> streamTrack(String requestId) {
+        if (timeSeries) {
+            // The cursor's first batch tells whether the request has time-series data; no separate probe
+            Stream<LocationTracking> track = locationTimeSeriesRepository.streamTrack(requestId, null, null);
+            Iterator<LocationTracking> samples = track.iterator();
+            if (samples.hasNext()) {
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(samples, Spliterator.ORDERED), false)
+                        .onClose(track::close);
+            }
+            track.close();
+        }
+        Query query = new Query(Criteria.where("requestId").is(requestId)).with(Sort.by(Sort.Direction.ASC, "timestamp"));
+        return mongoTemplate.stream(query, LocationTracking.class);
+    }
+
+    public void deleteByMechanicUserId(String mechanicUserId) {
+        locationTrackingRepository.deleteByMechanicUserId(mechanicUserId);
+        if (timeSeries) {
+            locationTimeSeriesRepository.deleteByMechanicUserId(mechanicUserId);
+        }
+    }
+
+    // Copies location_tracking into the time-series collection in _id order. Progress is kept in
+    // the migrations collection so a restart resumes where it stopped; the lease keeps it on one replica.
+    private void migrate() {
+        try {
+            if (!schedulerLockService.tryAcquire(MIGRATION_LOCK, migrationLeaseMs)) {
+                return;
+            }
+            Document progress = mongoTemplate.findById(MIGRATION_ID, Document.class, "migrations");
+            if (progress != null && Boolean.TRUE.equals(progress.getBoolean("done"))) {
+                return;
+            }
+            ObjectId lastId = progress != null ? progress.getObjectId("lastId") : null;
+            long copied = progress != null && progress.get("copied") != null ? ((Number) progress.get("copied")).longValue() : 0;
+            log.info("Migrating location history to time-series, resuming after {}", lastId);
+
+            while (true) {
+                Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(migrationBatchSize);
+                if (lastId != null) {
+                    page.addCriteria(Criteria.where("_id").gt(lastId));
+                }
+                List<LocationTracking> batch = mongoTemplate.find(page, LocationTracking.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                // A crash between this insert and the checkpoint re-reads the batch; samples keep their
+                // source _id, so the ones already copied are skipped rather than duplicated
+                copied += locationTimeSeriesRepository.insertMissing(batch);
+                lastId = new ObjectId(batch.get(batch.size() - 1).getId());
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(MIGRATION_ID)),
+                        new Update().set("lastId", lastId).set("copied", copied).set("updatedAt", LocalDateTime.now()),
+                        "migrations");
+                schedulerLockService.tryAcquire(MIGRATION_LOCK, migrationLeaseMs);
+            }
+
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(MIGRATION_ID)),
+                    new Update().set("done", true).set("copied", copied).set("updatedAt", LocalDateTime.now()),
+                    "migrations");
+            log.info("Location history migration finished, {} samples copied", copied);
+        } catch (Exception e) {
+            log.error("Location history migration stopped: {}", e.getMessage());
+        } finally {
+            if (schedulerLockService.isHeld(MIGRATION_LOCK)) {
+                schedulerLockService.release(MIGRATION_LOCK);
+            }
+        }
+    }
+}
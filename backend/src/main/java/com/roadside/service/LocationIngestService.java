@@ -0,0 +1,153 @@
+package com.roadside.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.roadside.model.LocationTracking;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind persistence for GPS pings. The STOMP inbound thread only enqueues; a single
+ * writer thread drains the queue into insertMany batches every flush interval, or as soon as
+ * a full batch is waiting. The queue is bounded: when Mongo falls behind, new samples are
+ * dropped (and counted) rather than growing the heap or blocking the socket threads.
+ */
+@Service
+public class LocationIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationIngestService.class);
+
+    private final LocationHistoryService locationHistoryService;
+    private final ScheduledExecutorService writer;
+
+    // ConcurrentLinkedQueue has no capacity, so the bound is kept in a separate counter
+    private final Queue<LocationTracking> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final int capacity;
+    private final int flushSize;
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private volatile long lastFlushMillis;
+
+    public LocationIngestService(LocationHistoryService locationHistoryService,
+                                 @Value("${location.ingest.capacity:10000}") int capacity,
+                                 @Value("${location.ingest.flush-size:500}") int flushSize,
+                                 @Value("${location.ingest.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.locationHistoryService = locationHistoryService;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Never blocks; returns false if the sample was dropped because the queue is full
+    public boolean enqueue(LocationTracking tracking) {
+        int size = depth.incrementAndGet();
+        if (size > capacity) {
+            depth.decrementAndGet();
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Location ingest queue full ({}), dropping samples", capacity);
+            }
+            return false;
+        }
+        queue.offer(tracking);
+        enqueued.incrementAndGet();
+        maxDepth.accumulateAndGet(size, Math::max);
+
+        // A full batch is waiting: write it now instead of at the next interval
+        if (size >= flushSize && flushRequested.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+        return true;
+    }
+
+    private void flush() {
+        flushRequested.set(false);
+        long started = System.currentTimeMillis();
+        boolean wrote = false;
+        List<LocationTracking> batch = new ArrayList<>(flushSize);
+        LocationTracking next;
+        while ((next = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(next);
+            if (batch.size() >= flushSize) {
+                write(batch);
+                wrote = true;
+                batch = new ArrayList<>(flushSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+            wrote = true;
+        }
+        if (wrote) {
+            lastFlushMillis = System.currentTimeMillis() - started;
+        }
+    }
+
+    private void write(List<LocationTracking> batch) {
+        try {
+            locationHistoryService.saveAll(batch);
+            persisted.addAndGet(batch.size());
+        } catch (Exception e) {
+            // Track points are best effort; a failed batch is counted and skipped rather than retried forever
+            failed.addAndGet(batch.size());
+            log.error("Failed to persist {} location samples: {}", batch.size(), e.getMessage());
+        }
+        flushes.incrementAndGet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever arrived after the last scheduled run
+        flush();
+        log.info("Location ingest stopped: {} persisted, {} dropped, {} failed", persisted.get(), dropped.get(), failed.get());
+    }
+
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "queueDepth", depth.get(),
+            "maxQueueDepth", maxDepth.get(),
+            "capacity", capacity,
+            "enqueued", enqueued.get(),
+            "dropped", dropped.get(),
+            "persisted", persisted.get(),
+            "failed", failed.get(),
+            "flushes", flushes.get(),
+            "lastFlushMillis", lastFlushMillis
+        );
+    }
+}
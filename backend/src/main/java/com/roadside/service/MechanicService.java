@@ -1,20 +1,33 @@
 package com.roadside.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.roadside.dto.CreateShopRequest;
 import com.roadside.model.MechanicShop;
+import com.roadside.model.Notification;
 import com.roadside.model.RepairRequest;
+import com.roadside.model.RequestStatus;
 import com.roadside.repository.MechanicShopRepository;
 import com.roadside.repository.RepairRequestRepository;
+import com.roadside.util.OpeningHours;
+import com.roadside.util.ServiceTags;
 
 @Service
 public class MechanicService {
@@ -25,16 +38,28 @@ public class MechanicService {
     private final RepairRequestRepository repairRequestRepository;
     private final WebSocketService webSocketService;
     private final NotificationService notificationService;
+    private final ShopIndexService shopIndexService;
+    private final DispatchService dispatchService;
+    private final PendingRequestRegistry pendingRequestRegistry;
+    private final RequestLifecycleService requestLifecycleService;
 
     // Manual Constructor for Dependency Injection
     public MechanicService(MechanicShopRepository mechanicShopRepository,
                          RepairRequestRepository repairRequestRepository,
                          WebSocketService webSocketService,
-                         NotificationService notificationService) {
+                         NotificationService notificationService,
+                         ShopIndexService shopIndexService,
+                         DispatchService dispatchService,
+                         PendingRequestRegistry pendingRequestRegistry,
+                         RequestLifecycleService requestLifecycleService) {
         this.mechanicShopRepository = mechanicShopRepository;
         this.repairRequestRepository = repairRequestRepository;
         this.webSocketService = webSocketService;
         this.notificationService = notificationService;
+        this.shopIndexService = shopIndexService;
+        this.dispatchService = dispatchService;
+        this.pendingRequestRegistry = pendingRequestRegistry;
+        this.requestLifecycleService = requestLifecycleService;
     }
     
     public MechanicShop createShop(String userId, CreateShopRequest request) {
@@ -57,14 +82,18 @@ public class MechanicService {
         shop.setShopTypes(request.getShopTypes());
         shop.setOpenTime(request.getOpenTime());
         shop.setCloseTime(request.getCloseTime());
+        shop.setOpenMinutes(OpeningHours.toMinuteOfDay(request.getOpenTime()));
+        shop.setCloseMinutes(OpeningHours.toMinuteOfDay(request.getCloseTime()));
         shop.setServicesOffered(request.getServicesOffered());
+        shop.setServiceTags(ServiceTags.fromText(request.getServicesOffered()));
         shop.setRating(0.0);
         shop.setTotalRatings(0);
         shop.setIsAvailable(true);
         // Auto-verify as per new requirements
         
-        
-        return mechanicShopRepository.save(shop);
+        MechanicShop saved = mechanicShopRepository.save(shop);
+        shopIndexService.upsert(saved);
+        return saved;
     }
     
     public MechanicShop updateShop(String userId, CreateShopRequest request) {
@@ -83,21 +112,26 @@ public class MechanicService {
         shop.setShopTypes(request.getShopTypes());
         shop.setOpenTime(request.getOpenTime());
         shop.setCloseTime(request.getCloseTime());
+        shop.setOpenMinutes(OpeningHours.toMinuteOfDay(request.getOpenTime()));
+        shop.setCloseMinutes(OpeningHours.toMinuteOfDay(request.getCloseTime()));
         shop.setServicesOffered(request.getServicesOffered());
+        shop.setServiceTags(ServiceTags.fromText(request.getServicesOffered()));
         
         if (request.getIsAvailable() != null) {
             shop.setIsAvailable(request.getIsAvailable());
         }
         
-        return mechanicShopRepository.save(shop);
+        MechanicShop saved = mechanicShopRepository.save(shop);
+        shopIndexService.upsert(saved);
+        return saved;
     }
     
     public void toggleAvailability(String userId, Boolean isAvailable) {
-        MechanicShop shop = mechanicShopRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Shop not found"));
-        
-        shop.setIsAvailable(isAvailable);
-        mechanicShopRepository.save(shop);
+        MechanicShop shop = mechanicShopRepository.setAvailabilityByUserId(userId, Boolean.TRUE.equals(isAvailable));
+        if (shop == null) {
+            throw new RuntimeException("Shop not found");
+        }
+        shopIndexService.upsert(shop);
         
         log.info("Shop {} availability toggled to: {}", shop.getShopName(), isAvailable);
     }
@@ -161,31 +195,37 @@ public class MechanicService {
         return acceptedRequests;
     }
     
-    @Transactional
     public RepairRequest acceptRequest(String userId, String requestId) {
         Objects.requireNonNull(requestId, "requestId must not be null");
-        // Find the request
-        RepairRequest request = repairRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        
-        // Verify the request is for this mechanic's shop
         MechanicShop shop = mechanicShopRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Shop not found"));
         
-        if (!request.getMechanicShopId().equals(shop.getId())) {
-            throw new RuntimeException("Request is not for your shop");
+        // A broadcast is one document per shop, so the per-document claim below can't stop two shops
+        // accepting their own copies. The whole broadcast is claimed first: losers are turned away here,
+        // before anything is written to their request.
+        RepairRequest target = repairRequestRepository.findBroadcastIdById(requestId);
+        if (target == null) {
+            throw new RuntimeException("Request not found");
         }
-        
-        if (!"PENDING".equals(request.getStatus()) && !"SOS_PENDING".equals(request.getStatus())) {
-            throw new RuntimeException("Request is not in pending status");
+        String broadcastId = target.getBroadcastId() != null && !target.getBroadcastId().isEmpty() ? target.getBroadcastId() : null;
+        if (broadcastId != null && !repairRequestRepository.claimBroadcast(broadcastId, requestId)) {
+            log.info("Mechanic {} lost the broadcast {} claim on request {}", userId, broadcastId, requestId);
+            throw new RuntimeException("Request is no longer available");
         }
         
-        // Update request status
-        request.setStatus("ACCEPTED");
-        request.setMechanicUserId(userId);
-        request.setAcceptedAt(LocalDateTime.now());
+        // Atomic claim: matches id + pending status + this shop and flips it to ACCEPTED in one round trip.
+        // There is no Mongo transaction manager, so a read-check-save here would let two mechanics both win.
+        RepairRequest request = repairRequestRepository.claimPending(requestId, shop.getId(), userId, LocalDateTime.now());
+        if (request == null) {
+            // Already taken, expired, or not addressed to this shop - nothing was written
+            if (broadcastId != null) {
+                repairRequestRepository.releaseBroadcastClaim(broadcastId, requestId);
+            }
+            log.info("Mechanic {} lost the claim on request {}", userId, requestId);
+            throw new RuntimeException("Request is no longer available");
+        }
+        pendingRequestRegistry.remove(requestId);
         // Client location will remain visible until job is manually marked as COMPLETED
-        repairRequestRepository.save(request);
         
         // Notify client
         notificationService.createNotification(
@@ -196,52 +236,20 @@ public class MechanicService {
             requestId
         );
         
-        // CRITICAL: Handle Broadcast / Multiple Request Cleanup
-        List<RepairRequest> otherRequests;
-        
-        if (request.getBroadcastId() != null && !request.getBroadcastId().isEmpty()) {
-            // Using refined broadcast logic
-            otherRequests = repairRequestRepository.findByBroadcastId(request.getBroadcastId());
-        } else {
-            // Fallback to client ID checks
-            otherRequests = repairRequestRepository.findByClientIdAndStatus(request.getClientId(), "PENDING");
-        }
-        
-        for (RepairRequest other : otherRequests) {
-            // Check if it's "other" (different ID) OR if it's the same ID but we want to be safe (id should be unique though)
-            // Ideally we only delete strictly 'other' requests.
-            // Note: If using findByBroadcastId, the current 'request' will also be in the list.
-            if (!other.getId().equals(requestId)) {
-                // If it's a broadcast request (same broadcastId) OR just a lingering request from same client
-                // We should auto-cancel it to avoid duplicate acceptance.
-                
-                // Notify the mechanic who *missed* this job
-                // We need to send a socket message to remove it from their dashboard
-                if (other.getMechanicShopId() != null) {
-                     mechanicShopRepository.findById(java.util.Objects.requireNonNull(other.getMechanicShopId())).ifPresent(otherShop -> {
-                         String otherMechanicId = otherShop.getUserId();
-                         log.info("Notifying mechanic {} about request taken: {}", otherMechanicId, other.getId());
-                         notificationService.createNotification(
-                            otherMechanicId,
-                            "REQUEST_TAKEN",
-                            "Request Taken",
-                            "A request you received has been accepted by another mechanic.",
-                            other.getId()
-                         );
-                         // JSON payload for socket
-                         webSocketService.sendToUser(otherMechanicId, "REQUEST_TAKEN", other);
-                     });
-                } else {
-                    log.warn("Other request {} has no shop ID, skipping notification", other.getId());
-                }
-                
-                // Delete the request
-                repairRequestRepository.delete(other);
+        // Other shops that were offered a dispatched request drop it from their dashboards
+        if (request.getOfferedShopIds() != null) {
+            List<String> otherShopIds = new ArrayList<>(request.getOfferedShopIds());
+            otherShopIds.remove(shop.getId());
+            for (MechanicShop offered : mechanicShopRepository.findAllById(otherShopIds)) {
+                webSocketService.sendToUser(offered.getUserId(), "REQUEST_TAKEN", request);
             }
         }
         
+        // CRITICAL: Handle Broadcast / Multiple Request Cleanup
+        int cleanedUp = removeSiblingRequests(request);
+        
         log.info("Request {} accepted by mechanic {}. Cleaned up {} other pending requests.", 
-                requestId, userId, otherRequests.size() - 1);
+                requestId, userId, cleanedUp);
         
         // Send WebSocket notification to client
         webSocketService.sendToUser(request.getClientId(), "REQUEST_ACCEPTED", request);
@@ -249,6 +257,75 @@ public class MechanicService {
         return request;
     }
     
+    /**
+     * Removes the other copies of an accepted request (same broadcastId, or the client's
+     * lingering PENDING requests for non-broadcast ones) and tells their mechanics.
+     * Done in bulk: one read of the siblings, one $in lookup of their shops, one insertMany
+     * of notifications and one deleteMany, then a socket message per affected mechanic.
+     */
+    private int removeSiblingRequests(RepairRequest winner) {
+        boolean broadcast = winner.getBroadcastId() != null && !winner.getBroadcastId().isEmpty();
+        List<RepairRequest> siblings = broadcast
+            ? repairRequestRepository.findByBroadcastId(winner.getBroadcastId())
+            : repairRequestRepository.findByClientIdAndStatus(winner.getClientId(), "PENDING");
+        siblings.removeIf(other -> other.getId().equals(winner.getId()));
+        if (siblings.isEmpty()) {
+            return 0;
+        }
+        
+        // Only siblings still waiting for an answer go; one a mechanic already rejected (or that expired)
+        // stays in their history. Whatever the delete returns is what gets notified.
+        List<String> pendingStatuses = List.of(RequestStatus.PENDING.name(), RequestStatus.SOS_PENDING.name());
+        siblings = broadcast
+            ? repairRequestRepository.deleteByBroadcastIdAndIdNotAndStatusIn(winner.getBroadcastId(), winner.getId(), pendingStatuses)
+            : repairRequestRepository.deleteByIdInAndStatusIn(siblings.stream().map(RepairRequest::getId).collect(Collectors.toList()), pendingStatuses);
+        if (siblings.isEmpty()) {
+            return 0;
+        }
+        
+        Set<String> shopIds = new HashSet<>();
+        for (RepairRequest other : siblings) {
+            if (other.getMechanicShopId() != null) {
+                shopIds.add(other.getMechanicShopId());
+            } else {
+                log.warn("Other request {} has no shop ID, skipping notification", other.getId());
+            }
+        }
+        Map<String, String> mechanicByShop = new HashMap<>();
+        for (MechanicShop otherShop : mechanicShopRepository.findAllById(shopIds)) {
+            mechanicByShop.put(otherShop.getId(), otherShop.getUserId());
+        }
+        
+        // Group by the mechanic who *missed* the job so each gets its messages together
+        Map<String, List<RepairRequest>> takenByMechanic = new LinkedHashMap<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (RepairRequest other : siblings) {
+            String otherMechanicId = mechanicByShop.get(other.getMechanicShopId());
+            if (otherMechanicId == null) {
+                continue;
+            }
+            takenByMechanic.computeIfAbsent(otherMechanicId, id -> new ArrayList<>()).add(other);
+            notifications.add(notificationService.buildNotification(
+                otherMechanicId,
+                "REQUEST_TAKEN",
+                "Request Taken",
+                "A request you received has been accepted by another mechanic.",
+                other.getId()
+            ));
+        }
+        notificationService.createNotifications(notifications);
+        
+        // Sockets are notified only once the siblings are gone from Mongo
+        takenByMechanic.forEach((otherMechanicId, taken) -> {
+            log.info("Notifying mechanic {} about {} request(s) taken", otherMechanicId, taken.size());
+            for (RepairRequest other : taken) {
+                webSocketService.sendToUser(otherMechanicId, "REQUEST_TAKEN", other);
+            }
+        });
+        
+        return siblings.size();
+    }
+    
     @Transactional
     public RepairRequest rejectRequest(String userId, String requestId) {
         Objects.requireNonNull(requestId, "requestId must not be null");
@@ -258,45 +335,46 @@ public class MechanicService {
         // Check permissions (optional but good practice)
         // Mechanics can reject requests assigned to their shop
         
-        // Update status to REJECTED
-        request.setStatus("REJECTED");
-        
-        // Add to rejectedBy (legacy logic, kept for consistency)
-        if (request.getRejectedBy() == null) {
-            request.setRejectedBy(new java.util.ArrayList<>());
-        }
-        if (!request.getRejectedBy().contains(userId)) {
-            request.getRejectedBy().add(userId);
+        if (request.getMechanicShopId() == null && request.getOfferedShopIds() != null) {
+            // Dispatched offer: declining only removes this mechanic, the request stays open for the next wave
+            RequestStatus status = RequestStatus.from(request.getStatus());
+            if (!status.canTransitionTo(RequestStatus.REJECTED)) {
+                throw new RuntimeException(String.format("Cannot change request from %s to %s", status, RequestStatus.REJECTED));
+            }
+            MechanicShop shop = mechanicShopRepository.findByUserId(userId)
+                    .orElseThrow(() -> new RuntimeException("Shop not found"));
+            if (!request.getOfferedShopIds().contains(shop.getId())) {
+                throw new RuntimeException("This request was not offered to your shop");
+            }
+            repairRequestRepository.addRejection(requestId, userId);
+            dispatchService.onRejected(requestId, userId);
+            return request;
         }
         
+        // Status and rejectedBy change in one guarded write
+        RepairRequest rejected = requestLifecycleService.transition(requestId, RequestStatus.REJECTED, null, null,
+            new Update().addToSet("rejectedBy", userId));
+        pendingRequestRegistry.remove(requestId);
+        
         // Create notification for client
         notificationService.createNotification(
-            request.getClientId(),
+            rejected.getClientId(),
             "REQUEST_REJECTED",
             "Request Rejected",
-            String.format("Your %s repair request has been rejected by the mechanic.", request.getVehicleType()),
+            String.format("Your %s repair request has been rejected by the mechanic.", rejected.getVehicleType()),
             requestId
         );
         
-        return repairRequestRepository.save(request);
+        return rejected;
     }
     
     public void updateRequestStatus(String userId, String requestId, String status) {
         Objects.requireNonNull(requestId, "requestId must not be null");
-        RepairRequest request = repairRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        
-        if (!request.getMechanicUserId().equals(userId)) {
-            throw new RuntimeException("You are not assigned to this request");
-        }
-        
-        request.setStatus(status);
-        
-        if ("COMPLETED".equals(status)) {
-            request.setCompletedAt(LocalDateTime.now());
-        }
+        RequestStatus target = RequestStatus.from(status);
         
-        repairRequestRepository.save(request);
+        // Only the assigned mechanic may move the job along
+        RepairRequest request = requestLifecycleService.transition(requestId, target,
+            Criteria.where("mechanicUserId").is(userId), "You are not assigned to this request", null);
         
         // Notify client
         webSocketService.sendToUser(request.getClientId(), "STATUS_UPDATE", request);
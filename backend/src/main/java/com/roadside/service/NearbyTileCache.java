@@ -0,0 +1,179 @@
+package com.roadside.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Component;
+
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+import com.roadside.util.GeoUtils;
+import com.roadside.util.OpeningHours;
+
+/**
+ * LRU/TTL cache of nearby-search candidates keyed by a quantized geo tile.
+ * Each entry holds every shop that could match for any caller inside the tile
+ * (radius bucket + tile half-diagonal around the tile center); hits are then
+ * filtered and sorted against the caller's exact point.
+ */
+@Component
+public class NearbyTileCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NearbyTileCache.class);
+
+    private static final double RADIUS_BUCKET_METERS = 5000;
+
+    @Value("${geospatial.tile-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${geospatial.tile-cache.tile-degrees:0.01}")
+    private double tileDegrees;
+
+    @Value("${geospatial.tile-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${geospatial.tile-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${geospatial.max-radius}")
+    private double maxRadius;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // view separates loaders that return different projections (e.g. full vs pin fields)
+    public List<MechanicShop> findNearby(String view, ShopSearchCriteria criteria,
+                                         Function<ShopSearchCriteria, List<MechanicShop>> loader) {
+        if (!enabled || criteria.getRadiusMeters() > maxRadius) {
+            return loader.apply(criteria);
+        }
+
+        long row = (long) Math.floor(criteria.getLatitude() / tileDegrees);
+        long col = (long) Math.floor(criteria.getLongitude() / tileDegrees);
+        double bucket = Math.max(1, Math.ceil(criteria.getRadiusMeters() / RADIUS_BUCKET_METERS)) * RADIUS_BUCKET_METERS;
+        String key = view + ":" + row + ":" + col + ":" + (long) bucket + ":" + criteria.getShopTypes() + ":"
+                + criteria.getServiceKeywords() + ":" + criteria.getMinRating() + ":" + criteria.isIncludeUnavailable();
+
+        Entry entry = get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            double centerLat = (row + 0.5) * tileDegrees;
+            double centerLng = (col + 0.5) * tileDegrees;
+            double coverRadius = bucket + GeoUtils.distanceMeters(centerLat, centerLng,
+                    centerLat + tileDegrees / 2, centerLng + tileDegrees / 2);
+
+            // Superset for the whole tile; openNow is time dependent so it is applied on refine
+            ShopSearchCriteria tileCriteria = criteria.withArea(centerLat, centerLng, coverRadius);
+            tileCriteria.setOpenNow(false);
+
+            entry = new Entry(centerLat, centerLng, coverRadius, loader.apply(tileCriteria),
+                    System.currentTimeMillis() + ttlMs);
+            put(key, entry);
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return refine(entry.shops, criteria);
+    }
+
+    // Drop every entry whose coverage circle contains the point
+    public void invalidate(GeoJsonPoint location) {
+        if (location == null) {
+            return;
+        }
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (GeoUtils.distanceMeters(entry.centerLat, entry.centerLng, location.getY(), location.getX()) <= entry.coverRadius) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        log.debug("Invalidated {} nearby tile cache entries", removed);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    private Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+            if (entries.size() > maxEntries) {
+                // Access-ordered map: the first entry is the least recently used
+                Iterator<String> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static List<MechanicShop> refine(List<MechanicShop> candidates, ShopSearchCriteria criteria) {
+        int nowMinute = criteria.isOpenNow() ? OpeningHours.currentMinuteOfDay() : OpeningHours.UNKNOWN;
+        List<MechanicShop> results = new ArrayList<>();
+        for (MechanicShop shop : candidates) {
+            if (shop.getLocation() == null) {
+                continue;
+            }
+            double distance = GeoUtils.distanceMeters(criteria.getLatitude(), criteria.getLongitude(),
+                    shop.getLocation().getY(), shop.getLocation().getX());
+            if (distance > criteria.getRadiusMeters() || distance < criteria.getMinRadiusMeters()) {
+                continue;
+            }
+            MechanicShop copy = ShopIndexService.snapshot(shop);
+            if (criteria.isOpenNow() && !OpeningHours.isOpen(copy.getOpenMinutes(), copy.getCloseMinutes(), nowMinute)) {
+                continue;
+            }
+            copy.setDistance(distance);
+            results.add(copy);
+        }
+        results.sort(Comparator.comparingDouble(MechanicShop::getDistance));
+        return results;
+    }
+
+    private static final class Entry {
+        private final double centerLat;
+        private final double centerLng;
+        private final double coverRadius;
+        private final List<MechanicShop> shops;
+        private final long expiresAt;
+
+        Entry(double centerLat, double centerLng, double coverRadius, List<MechanicShop> shops, long expiresAt) {
+            this.centerLat = centerLat;
+            this.centerLng = centerLng;
+            this.coverRadius = coverRadius;
+            this.shops = shops;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -27,6 +27,18 @@ public class NotificationService {
             String title, 
             String message, 
             String requestId
+    ) {
+        log.info("Creating notification for user: {}, type: {}", userId, type);
+        return notificationRepository.save(buildNotification(userId, type, title, message, requestId));
+    }
+    
+    // Unsaved notification, for callers that persist several at once via createNotifications
+    public Notification buildNotification(
+            String userId, 
+            String type, 
+            String title, 
+            String message, 
+            String requestId
     ) {
         Notification notification = new Notification();
         notification.setUserId(userId);
@@ -36,9 +48,16 @@ public class NotificationService {
         notification.setRequestId(requestId);
         notification.setIsRead(false);
         notification.setCreatedAt(LocalDateTime.now());
-        
-        log.info("Creating notification for user: {}, type: {}", userId, type);
-        return notificationRepository.save(notification);
+        return notification;
+    }
+    
+    // Single insertMany for the whole batch
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        log.info("Creating {} notifications", notifications.size());
+        return notificationRepository.insert(notifications);
     }
     
     public List<Notification> getUserNotifications(String userId) {
@@ -51,15 +70,14 @@ public class NotificationService {
     
     public Notification markAsRead(String notificationId) {
         java.util.Objects.requireNonNull(notificationId, "notificationId must not be null");
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-        notification.setIsRead(true);
-        return notificationRepository.save(notification);
+        Notification notification = notificationRepository.markAsRead(notificationId);
+        if (notification == null) {
+            throw new RuntimeException("Notification not found");
+        }
+        return notification;
     }
 
     public void markAllAsRead(String userId) {
-        List<Notification> userNotifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        userNotifications.forEach(notification -> notification.setIsRead(true));
-        notificationRepository.saveAll(userNotifications);
+        notificationRepository.markAllAsRead(userId);
     }
 }
@@ -0,0 +1,220 @@
+package com.roadside.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.roadside.model.RepairRequest;
+import com.roadside.repository.RepairRequestRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hashed timing wheel of PENDING and SOS_PENDING requests so each one expires close to its deadline
+ * instead of waiting for the next polling sweep.
+ * Each replica only tracks requests in the expiry shards it leads (the same createdAt shards
+ * and leases as the RequestSchedulerService sweep): requests created here are registered if
+ * their shard is led here, and every sweep loads the pending requests of the led shards, which
+ * also rebuilds the wheel after a restart or when a shard changes hands. Entries whose shard
+ * has moved to another replica meanwhile are dropped at their deadline instead of expired.
+ * Expiry is a conditional update (status still pending), so requests accepted in the
+ * meantime are left alone.
+ */
+@Service
+public class PendingRequestRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingRequestRegistry.class);
+
+    private final RepairRequestRepository repairRequestRepository;
+    private final WebSocketService webSocketService;
+    private final SchedulerLockService schedulerLockService;
+    private final ScheduledExecutorService ticker;
+
+    private final long tickMs;
+    private final List<Set<Entry>> wheel;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long startMillis = System.currentTimeMillis();
+
+    // Guards currentTick against bucket changes, so an entry can't land in the bucket the ticker
+    // has just scanned and wait a full rotation. Held only for in-memory work, never for Mongo calls.
+    private final Object lock = new Object();
+
+    // Last tick whose bucket has been processed
+    private long currentTick = 0;
+
+    @Value("${request.auto-expire-minutes}")
+    private Integer autoExpireMinutes;
+
+    @Value("${request.sweep.shards:1}")
+    private int shardCount;
+
+    public PendingRequestRegistry(RepairRequestRepository repairRequestRepository,
+                                  WebSocketService webSocketService,
+                                  SchedulerLockService schedulerLockService,
+                                  @Value("${request.expiry-wheel.tick-ms:1000}") long tickMs,
+                                  @Value("${request.expiry-wheel.size:512}") int wheelSize) {
+        this.repairRequestRepository = repairRequestRepository;
+        this.webSocketService = webSocketService;
+        this.schedulerLockService = schedulerLockService;
+        this.tickMs = tickMs;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Entries are loaded by the sweep once it holds its shards (see loadShards)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticker.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    // Requests in a shard led by another replica are left to that replica's next sweep
+    public void register(RepairRequest request) {
+        if (request == null || request.getId() == null) {
+            return;
+        }
+        LocalDateTime createdAt = request.getCreatedAt() != null ? request.getCreatedAt() : LocalDateTime.now();
+        int shard = RequestSchedulerService.shardOf(createdAt, shardCount);
+        if (!leads(shard)) {
+            return;
+        }
+        long deadline = createdAt.plusMinutes(autoExpireMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (lock) {
+            // Overdue requests land in the next bucket rather than a past one
+            long deadlineTick = Math.max((deadline - startMillis + tickMs - 1) / tickMs, currentTick + 1);
+
+            Entry entry = new Entry(request.getId(), deadlineTick, shard);
+            Entry previous = entries.put(entry.requestId, entry);
+            if (previous != null) {
+                bucket(previous.deadlineTick).remove(previous);
+            }
+            bucket(deadlineTick).add(entry);
+        }
+    }
+
+    // Accepted/removed requests no longer need a timer
+    public void remove(String requestId) {
+        synchronized (lock) {
+            Entry entry = entries.remove(requestId);
+            if (entry != null) {
+                bucket(entry.deadlineTick).remove(entry);
+            }
+        }
+    }
+
+    // Called by the sweep with the shards it holds; re-registering an entry just replaces it
+    public void loadShards(List<Integer> shards) {
+        int loaded = 0;
+        for (int shard : shards) {
+            for (RepairRequest pending : repairRequestRepository.findPendingCreatedAt(shard, shardCount)) {
+                register(pending);
+                loaded++;
+            }
+        }
+        log.debug("Expiry registry loaded {} pending requests from shards {}", loaded, shards);
+    }
+
+    private boolean leads(int shard) {
+        return schedulerLockService.isHeld(RequestSchedulerService.shardLock(shard));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void advance() {
+        try {
+            // Catch up if a tick was delayed (GC pause, slow expiry round trip)
+            long targetTick = (System.currentTimeMillis() - startMillis) / tickMs;
+            while (true) {
+                List<Entry> due;
+                synchronized (lock) {
+                    if (currentTick >= targetTick) {
+                        break;
+                    }
+                    currentTick++;
+                    due = takeDue(currentTick);
+                }
+                expire(due);
+            }
+        } catch (Exception e) {
+            log.error("Expiry tick failed: {}", e.getMessage());
+        }
+    }
+
+    // Removes the entries due at this tick from the wheel; caller holds the lock
+    private List<Entry> takeDue(long tick) {
+        List<Entry> due = new ArrayList<>();
+        Set<Entry> bucket = bucket(tick);
+        for (Entry entry : bucket) {
+            // Entries further out share this bucket until their round comes up
+            if (entry.deadlineTick <= tick) {
+                due.add(entry);
+            }
+        }
+        for (Entry entry : due) {
+            bucket.remove(entry);
+            entries.remove(entry.requestId, entry);
+        }
+        return due;
+    }
+
+    private void expire(List<Entry> due) {
+        for (Entry entry : due) {
+            if (!leads(entry.shard)) {
+                // The shard moved; its new leader has loaded this request
+                continue;
+            }
+            try {
+                RepairRequest expired = repairRequestRepository.expireIfPending(entry.requestId, LocalDateTime.now());
+                if (expired != null) {
+                    webSocketService.sendToUser(expired.getClientId(), "REQUEST_EXPIRED", expired);
+                    log.info("Request {} expired and client {} notified", expired.getId(), expired.getClientId());
+                }
+            } catch (Exception e) {
+                log.error("Failed to expire request {}: {}", entry.requestId, e.getMessage());
+            }
+        }
+    }
+
+    private Set<Entry> bucket(long tick) {
+        return wheel.get((int) (tick % wheel.size()));
+    }
+
+    private static final class Entry {
+        private final String requestId;
+        private final long deadlineTick;
+        private final int shard;
+
+        Entry(String requestId, long deadlineTick, int shard) {
+            this.requestId = requestId;
+            this.deadlineTick = deadlineTick;
+            this.shard = shard;
+        }
+    }
+}
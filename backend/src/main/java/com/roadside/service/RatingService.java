@@ -19,6 +19,9 @@ public class RatingService {
 
     @Autowired
     private MechanicShopRepository mechanicShopRepository;
+
+    @Autowired
+    private ShopIndexService shopIndexService;
     
     public Rating submitRating(String userId, String mechanicShopId, Integer starRating, String requestId) {
         // Validate rating value
@@ -60,20 +63,13 @@ public class RatingService {
     
     private void recalculateShopRating(String shopId) {
         if (shopId == null) return;
-        MechanicShop shop = mechanicShopRepository.findById(shopId).orElse(null);
+        List<Rating> ratings = ratingRepository.findByMechanicShopId(shopId);
+        double avg = ratings.stream().mapToInt(Rating::getRating).average().orElse(0.0);
+        
+        // Only the two aggregate fields are written; a missing shop just returns null
+        MechanicShop shop = mechanicShopRepository.setRatingSummary(shopId, avg, ratings.size());
         if (shop != null) {
-            List<Rating> ratings = ratingRepository.findByMechanicShopId(shopId);
-            
-            if (ratings.isEmpty()) {
-                shop.setTotalRatings(0);
-                shop.setRating(0.0);
-            } else {
-                double avg = ratings.stream().mapToInt(Rating::getRating).average().orElse(0.0);
-                shop.setTotalRatings(ratings.size());
-                shop.setRating(avg);
-            }
-            
-            mechanicShopRepository.save(shop);
+            shopIndexService.upsert(shop);
         }
     }
     
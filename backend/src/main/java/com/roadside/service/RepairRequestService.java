@@ -1,11 +1,22 @@
 package com.roadside.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.roadside.dto.BroadcastRequestDTO;
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+import com.roadside.model.Notification;
 import com.roadside.model.RepairRequest;
+import com.roadside.model.User;
 import com.roadside.repository.RepairRequestRepository;
 
 @Service
@@ -18,18 +29,30 @@ public class RepairRequestService {
     private final com.roadside.service.NotificationService notificationService;
     private final com.roadside.repository.MechanicShopRepository mechanicShopRepository;
     private final WebSocketService webSocketService;
+    private final ShopSearchService shopSearchService;
+    private final PendingRequestRegistry pendingRequestRegistry;
+    
+    @Value("${request.broadcast.max-shops:50}")
+    private int maxBroadcastShops;
+    
+    @Value("${geospatial.max-radius}")
+    private double maxRadius;
     
     // Manual constructor since Lombok seems to be having issues in this environment
     public RepairRequestService(RepairRequestRepository repairRequestRepository,
                                 com.roadside.repository.UserRepository userRepository,
                                 com.roadside.service.NotificationService notificationService,
                                 com.roadside.repository.MechanicShopRepository mechanicShopRepository,
-                                WebSocketService webSocketService) {
+                                WebSocketService webSocketService,
+                                ShopSearchService shopSearchService,
+                                PendingRequestRegistry pendingRequestRegistry) {
         this.repairRequestRepository = repairRequestRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
         this.mechanicShopRepository = mechanicShopRepository;
         this.webSocketService = webSocketService;
+        this.shopSearchService = shopSearchService;
+        this.pendingRequestRegistry = pendingRequestRegistry;
     }
     
     @Transactional
@@ -80,6 +103,7 @@ public class RepairRequestService {
         // Save request
         RepairRequest savedRequest = repairRequestRepository.save(request);
         log.info("Created repair request: {} with status: {}", savedRequest.getId(), savedRequest.getStatus());
+        pendingRequestRegistry.register(savedRequest);
         
         // Verify location was saved
         if (savedRequest.getClientLocation() != null) {
@@ -127,4 +151,105 @@ public class RepairRequestService {
         
         return savedRequest;
     }
+
+    /**
+     * Creates one PENDING request per target shop, all sharing a new broadcastId.
+     * The client is loaded once, the shops in one $in query (or one nearby search),
+     * the requests and the mechanics' notifications are each written with a single insertMany.
+     */
+    public List<RepairRequest> createBroadcast(String clientId, BroadcastRequestDTO dto) {
+        List<MechanicShop> shops = resolveBroadcastShops(dto);
+        if (shops.isEmpty()) {
+            throw new RuntimeException("No shops found to send the request to");
+        }
+        
+        User client = userRepository.findById(java.util.Objects.requireNonNull(clientId)).orElse(null);
+        String broadcastId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        GeoJsonPoint clientLocation = new GeoJsonPoint(
+            dto.getClientLocation().getLongitude(),
+            dto.getClientLocation().getLatitude()
+        );
+        
+        List<RepairRequest> requests = new ArrayList<>(shops.size());
+        for (MechanicShop shop : shops) {
+            RepairRequest request = new RepairRequest();
+            request.setClientId(clientId);
+            if (client != null) {
+                request.setClientName(client.getName());
+                request.setClientPhone(client.getPhone());
+            }
+            request.setMechanicShopId(shop.getId());
+            request.setShopName(shop.getShopName());
+            request.setShopAddress(shop.getAddress());
+            request.setShopPhone(shop.getPhone());
+            request.setClientLocation(clientLocation);
+            request.setClientAddress(dto.getClientAddress());
+            request.setVehicleType(dto.getVehicleType());
+            request.setProblemDescription(dto.getProblemDescription());
+            request.setAiSuggestion(dto.getAiSuggestion());
+            request.setImages(dto.getImages());
+            request.setType(dto.getType() != null ? dto.getType() : "NORMAL");
+            request.setBroadcastId(broadcastId);
+            request.setStatus("PENDING");
+            request.setCreatedAt(now);
+            requests.add(request);
+        }
+        
+        List<RepairRequest> saved = repairRequestRepository.insert(requests);
+        log.info("Created broadcast {} with {} requests for client {}", broadcastId, saved.size(), clientId);
+        saved.forEach(pendingRequestRegistry::register);
+        
+        // Requests and shops line up by position
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            String mechanicId = shops.get(i).getUserId();
+            if (mechanicId == null) {
+                log.warn("Shop {} has no associated userId", shops.get(i).getShopName());
+                continue;
+            }
+            notifications.add(notificationService.buildNotification(
+                mechanicId,
+                "NEW_REQUEST",
+                "New Repair Request",
+                "You have a new " + dto.getVehicleType() + " repair request.",
+                saved.get(i).getId()
+            ));
+        }
+        try {
+            notificationService.createNotifications(notifications);
+        } catch (Exception e) {
+            log.error("Failed to create DB notifications for broadcast {}", broadcastId, e);
+        }
+        
+        for (int i = 0; i < saved.size(); i++) {
+            webSocketService.sendToUser(shops.get(i).getUserId(), "NEW_REQUEST", saved.get(i));
+        }
+        
+        return saved;
+    }
+    
+    private List<MechanicShop> resolveBroadcastShops(BroadcastRequestDTO dto) {
+        if (dto.getShopIds() != null && !dto.getShopIds().isEmpty()) {
+            LinkedHashSet<String> ids = new LinkedHashSet<>(dto.getShopIds());
+            if (ids.size() > maxBroadcastShops) {
+                throw new RuntimeException("A broadcast can target at most " + maxBroadcastShops + " shops");
+            }
+            List<MechanicShop> shops = new ArrayList<>();
+            mechanicShopRepository.findAllById(ids).forEach(shops::add);
+            return shops;
+        }
+        if (dto.getRadiusKm() != null && dto.getRadiusKm() > 0) {
+            ShopSearchCriteria criteria = new ShopSearchCriteria(
+                dto.getClientLocation().getLatitude(),
+                dto.getClientLocation().getLongitude(),
+                Math.min(dto.getRadiusKm() * 1000, maxRadius)
+            );
+            criteria.setShopType(dto.getVehicleType());
+            List<MechanicShop> shops = shopSearchService.findNearby(criteria);
+            // Nearest first, so truncating keeps the closest shops
+            return shops.size() > maxBroadcastShops ? shops.subList(0, maxBroadcastShops) : shops;
+        }
+        throw new RuntimeException("Either shopIds or radiusKm is required");
+    }
 }
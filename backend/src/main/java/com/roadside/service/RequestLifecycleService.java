@@ -0,0 +1,69 @@
+package com.roadside.service;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.roadside.model.RepairRequest;
+import com.roadside.model.RequestStatus;
+import com.roadside.repository.RepairRequestRepository;
+
+/**
+ * Applies request status changes. Each change is validated against RequestStatus and written
+ * as one targeted $set guarded by the allowed current statuses, so concurrent changes can't be
+ * lost and image-heavy documents are never rewritten in full.
+ */
+@Service
+public class RequestLifecycleService {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLifecycleService.class);
+
+    private final RepairRequestRepository repairRequestRepository;
+    private final LastKnownPositionService lastKnownPositionService;
+    private final LocationBroadcastCoalescer locationBroadcastCoalescer;
+
+    public RequestLifecycleService(RepairRequestRepository repairRequestRepository,
+                                   LastKnownPositionService lastKnownPositionService,
+                                   LocationBroadcastCoalescer locationBroadcastCoalescer) {
+        this.repairRequestRepository = repairRequestRepository;
+        this.lastKnownPositionService = lastKnownPositionService;
+        this.locationBroadcastCoalescer = locationBroadcastCoalescer;
+    }
+
+    public RepairRequest transition(String requestId, RequestStatus to) {
+        return transition(requestId, to, null, null, null);
+    }
+
+    /**
+     * Moves the request to `to` if its current status allows it and it matches guard,
+     * applying changes in the same write. guardMessage is the error when only the guard failed.
+     */
+    public RepairRequest transition(String requestId, RequestStatus to, Criteria guard, String guardMessage, Update changes) {
+        RepairRequest updated = repairRequestRepository.transition(
+            requestId, to.allowedFrom(), to, guard, changes, LocalDateTime.now());
+        if (updated != null) {
+            log.info("Request {} moved to {}", requestId, to);
+            if (to.isTerminal()) {
+                // No more tracking for finished jobs
+                lastKnownPositionService.evict(requestId);
+                locationBroadcastCoalescer.evict(requestId);
+            }
+            return updated;
+        }
+
+        // Nothing matched: one extra read to say why
+        RepairRequest current = repairRequestRepository.findStatusById(requestId);
+        if (current == null) {
+            throw new RuntimeException("Request not found");
+        }
+        RequestStatus from = RequestStatus.from(current.getStatus());
+        if (!from.canTransitionTo(to)) {
+            throw new RuntimeException(String.format("Cannot change request from %s to %s", from, to));
+        }
+        throw new RuntimeException(guardMessage != null ? guardMessage : "Request was changed concurrently, please retry");
+    }
+}
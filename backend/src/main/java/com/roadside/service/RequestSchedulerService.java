@@ -1,7 +1,14 @@
 package com.roadside.service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,44 +21,178 @@ import com.roadside.repository.RepairRequestRepository;
 
 @Service
 public class RequestSchedulerService {
-    
+
     private static final Logger log = LoggerFactory.getLogger(RequestSchedulerService.class);
 
     private final RepairRequestRepository repairRequestRepository;
     private final WebSocketService webSocketService;
 
-    public RequestSchedulerService(RepairRequestRepository repairRequestRepository, WebSocketService webSocketService) {
+    // Sweep metrics
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong expiredTotal = new AtomicLong();
+    private volatile int lastSweepExpired;
+    private volatile long lastSweepMillis;
+    private volatile boolean lastSweepTruncated;
+    private volatile int lastOwnedShards;
+
+    private final SchedulerLockService schedulerLockService;
+    private final PendingRequestRegistry pendingRequestRegistry;
+
+    public RequestSchedulerService(RepairRequestRepository repairRequestRepository, WebSocketService webSocketService,
+                                   SchedulerLockService schedulerLockService, PendingRequestRegistry pendingRequestRegistry) {
         this.repairRequestRepository = repairRequestRepository;
         this.webSocketService = webSocketService;
+        this.schedulerLockService = schedulerLockService;
+        this.pendingRequestRegistry = pendingRequestRegistry;
     }
-    
+
     @Value("${request.auto-expire-minutes}")
     private Integer autoExpireMinutes;
-    
+
+    @Value("${request.sweep.batch-size:500}")
+    private int batchSize;
+
+    @Value("${request.sweep.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${request.sweep.shards:1}")
+    private int shardCount;
+
+    @Value("${request.sweep.max-shards-per-node:${request.sweep.shards:1}}")
+    private int maxShardsPerNode;
+
+    // Outlives a couple of ticks so a healthy owner always renews before it runs out
+    @Value("${request.sweep.lease-ms:600000}")
+    private long leaseMs;
+
+    // Safety net only: PendingRequestRegistry expires requests on time. This catches anything it
+    // missed (created on a replica that died, registry load failure) on a slow interval, and
+    // loads the pending requests of the shards it leads into the registry for the next deadlines.
+    // Work is bounded per tick (max-batches x batch-size) so a backlog after an outage drains
+    // over several ticks instead of holding the scheduler thread.
+    // Requests are split into shards by createdAt; each shard is swept only by the replica
+    // holding its lease, so every request is swept once per tick however many replicas run.
     @Scheduled(fixedDelayString = "${request.scheduler-interval-ms}")
     public void expirePendingRequests() {
+        List<Integer> shards = acquireShards();
+        if (shards.isEmpty()) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
         LocalDateTime expiryTime = LocalDateTime.now().minusMinutes(autoExpireMinutes);
-        
-        List<RepairRequest> expiredRequests = repairRequestRepository
-                .findByStatusAndCreatedAtBefore("PENDING", expiryTime);
-        
-        if (!expiredRequests.isEmpty()) {
-            log.info("Found {} expired pending requests", expiredRequests.size());
-            
-            for (RepairRequest request : expiredRequests) {
-                request.setStatus("EXPIRED");
-                repairRequestRepository.save(request);
-                
-                // Notify client
-                webSocketService.sendToUser(
-                    request.getClientId(),
-                    "REQUEST_EXPIRED",
-                    request
-                );
-                
-                log.info("Request {} expired and client {} notified", 
-                    request.getId(), request.getClientId());
+
+        int expired = 0;
+        int batches = 0;
+        boolean truncated = false;
+        Map<String, List<String>> expiredByClient = new LinkedHashMap<>();
+
+        for (int shard : shards) {
+            int shardBatches = 0;
+            while (!truncated) {
+                List<String> ids = repairRequestRepository.findExpirableIds(expiryTime, batchSize, shard, shardCount);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                // Mongo stores millisecond precision; the stamp is used to find the rows this batch changed
+                LocalDateTime stamp = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+                for (RepairRequest request : repairRequestRepository.expirePending(ids, stamp)) {
+                    expiredByClient.computeIfAbsent(request.getClientId(), id -> new ArrayList<>()).add(request.getId());
+                    expired++;
+                }
+                batches++;
+                shardBatches++;
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                if (batches >= maxBatches) {
+                    truncated = true;
+                }
+            }
+            if (shardBatches > 0) {
+                log.debug("Swept expiry shard {}/{} in {} batches", shard, shardCount, shardBatches);
+            }
+        }
+
+        // One event per client, listing all of its requests that expired in this sweep. A separate
+        // type from REQUEST_EXPIRED, which always carries a single RepairRequest.
+        expiredByClient.forEach((clientId, requestIds) -> webSocketService.sendToUser(
+            clientId,
+            "REQUEST_EXPIRED_BATCH",
+            Map.of("requestIds", requestIds, "count", requestIds.size())
+        ));
+
+        // Hand the rest of the led shards to the expiry wheel so they expire on time
+        try {
+            pendingRequestRegistry.loadShards(shards);
+        } catch (Exception e) {
+            log.error("Failed to load expiry registry: {}", e.getMessage());
+        }
+
+        lastOwnedShards = shards.size();
+        sweeps.incrementAndGet();
+        expiredTotal.addAndGet(expired);
+        lastSweepExpired = expired;
+        lastSweepMillis = System.currentTimeMillis() - started;
+        lastSweepTruncated = truncated;
+
+        if (expired > 0) {
+            log.info("Expired {} pending requests for {} clients in {} batches ({} ms){}", expired,
+                expiredByClient.size(), batches, lastSweepMillis, truncated ? ", more remain for the next sweep" : "");
+        }
+    }
+
+    // Renews the shards this replica already leads, then picks up free ones (from a random
+    // starting point so replicas don't all contend for shard 0) up to the per-node cap
+    private List<Integer> acquireShards() {
+        List<Integer> order = new ArrayList<>();
+        int offset = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = (offset + i) % shardCount;
+            if (schedulerLockService.isHeld(shardLock(shard))) {
+                order.add(0, shard);
+            } else {
+                order.add(shard);
+            }
+        }
+
+        List<Integer> owned = new ArrayList<>();
+        for (int shard : order) {
+            if (owned.size() >= maxShardsPerNode) {
+                break;
+            }
+            try {
+                if (schedulerLockService.tryAcquire(shardLock(shard), leaseMs)) {
+                    owned.add(shard);
+                }
+            } catch (Exception e) {
+                log.warn("Could not acquire expiry shard {}: {}", shard, e.getMessage());
             }
         }
+        return owned;
+    }
+
+    static String shardLock(int shard) {
+        return "request-expiry-sweep-" + shard;
+    }
+
+    // Java side of the findExpirableIds shard predicate: createdAt epoch millis % shardCount
+    static int shardOf(LocalDateTime createdAt, int shardCount) {
+        if (shardCount <= 1) {
+            return 0;
+        }
+        long millis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return (int) Math.floorMod(millis, (long) shardCount);
+    }
+
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "sweeps", sweeps.get(),
+            "expiredTotal", expiredTotal.get(),
+            "lastSweepExpired", lastSweepExpired,
+            "lastSweepMillis", lastSweepMillis,
+            "lastSweepTruncated", lastSweepTruncated,
+            "ownedShards", lastOwnedShards
+        );
     }
 }
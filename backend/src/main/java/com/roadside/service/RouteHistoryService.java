@@ -0,0 +1,113 @@
+package com.roadside.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.roadside.dto.RouteHistoryDTO;
+import com.roadside.model.LocationTracking;
+import com.roadside.util.GeoUtils;
+import com.roadside.util.Polyline;
+
+/**
+ * Route history for the work-history map. The track is read through a cursor straight into
+ * coordinate arrays (no list of documents in memory), points closer than the tolerance to the
+ * previously kept one are skipped while reading, and the rest is simplified with Douglas-Peucker
+ * and returned as an encoded polyline.
+ */
+@Service
+public class RouteHistoryService {
+
+    private final LocationHistoryService locationHistoryService;
+
+    @Value("${location.route.default-tolerance-meters:10}")
+    private double defaultTolerance;
+
+    @Value("${location.route.max-tolerance-meters:1000}")
+    private double maxTolerance;
+
+    public RouteHistoryService(LocationHistoryService locationHistoryService) {
+        this.locationHistoryService = locationHistoryService;
+    }
+
+    public RouteHistoryDTO getRoute(String requestId, Double toleranceMeters) {
+        double tolerance = toleranceMeters != null ? toleranceMeters : defaultTolerance;
+        if (tolerance < 0 || tolerance > maxTolerance) {
+            throw new IllegalArgumentException("tolerance must be between 0 and " + maxTolerance + " meters");
+        }
+
+        double[] lats = new double[256];
+        double[] lngs = new double[256];
+        int count = 0;
+        int original = 0;
+        double distance = 0;
+        double lastLat = 0;
+        double lastLng = 0;
+        LocalDateTime startedAt = null;
+        LocalDateTime endedAt = null;
+
+        try (Stream<LocationTracking> track = locationHistoryService.streamTrack(requestId)) {
+            Iterator<LocationTracking> samples = track.iterator();
+            while (samples.hasNext()) {
+                LocationTracking sample = samples.next();
+                if (sample.getLocation() == null) {
+                    continue;
+                }
+                double lat = sample.getLocation().getY();
+                double lng = sample.getLocation().getX();
+                if (original > 0) {
+                    distance += GeoUtils.distanceMeters(lastLat, lastLng, lat, lng);
+                }
+                if (startedAt == null) {
+                    startedAt = sample.getTimestamp();
+                }
+                endedAt = sample.getTimestamp();
+                original++;
+
+                // Radial pre-filter; the final point is always appended after the loop
+                boolean near = count > 0
+                    && GeoUtils.distanceMeters(lats[count - 1], lngs[count - 1], lat, lng) < tolerance;
+                lastLat = lat;
+                lastLng = lng;
+                if (near) {
+                    continue;
+                }
+                if (count == lats.length) {
+                    lats = Arrays.copyOf(lats, count * 2);
+                    lngs = Arrays.copyOf(lngs, count * 2);
+                }
+                lats[count] = lat;
+                lngs[count] = lng;
+                count++;
+            }
+        }
+
+        // Keep the true end of the route even if it was within tolerance of the last kept point
+        if (original > 1 && (count < 2 || lats[count - 1] != lastLat || lngs[count - 1] != lastLng)) {
+            if (count == lats.length) {
+                lats = Arrays.copyOf(lats, count + 1);
+                lngs = Arrays.copyOf(lngs, count + 1);
+            }
+            lats[count] = lastLat;
+            lngs[count] = lastLng;
+            count++;
+        }
+
+        int[] kept = Polyline.simplify(lats, lngs, count, tolerance);
+
+        RouteHistoryDTO route = new RouteHistoryDTO();
+        route.setRequestId(requestId);
+        route.setPolyline(Polyline.encode(lats, lngs, kept));
+        route.setToleranceMeters(tolerance);
+        route.setOriginalPoints(original);
+        route.setPoints(kept.length);
+        route.setDistanceMeters(distance);
+        route.setStartedAt(startedAt);
+        route.setEndedAt(endedAt);
+        return route;
+    }
+}
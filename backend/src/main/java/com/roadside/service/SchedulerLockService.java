@@ -0,0 +1,90 @@
+package com.roadside.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Lease locks in the scheduler_locks collection, used so cluster-wide scheduled jobs run on
+ * one replica per tick. A lock is one document keyed by name holding the owner and lease expiry.
+ * The owner renews by re-acquiring; if it dies the lease runs out and another replica takes over.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    private static final String COLLECTION = "scheduler_locks";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    public SchedulerLockService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        // pid@host plus a random suffix, so restarts on the same host don't inherit old leases
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Takes or renews the named lease for leaseMs. Returns false if another replica holds an unexpired lease.
+     */
+    public boolean tryAcquire(String name, long leaseMs) {
+        Date now = new Date();
+        // Matches a free/expired lock or one we already own; otherwise the upsert's insert hits the _id
+        Query query = new Query(Criteria.where("_id").is(name).orOperator(
+            Criteria.where("expiresAt").lt(now),
+            Criteria.where("owner").is(owner)
+        ));
+        Update update = new Update()
+            .set("owner", owner)
+            .set("expiresAt", new Date(now.getTime() + leaseMs))
+            .set("renewedAt", now);
+        try {
+            mongoTemplate.upsert(query, update, COLLECTION);
+            if (held.add(name)) {
+                log.info("Acquired scheduler lock {} as {}", name, owner);
+            }
+            return true;
+        } catch (DuplicateKeyException e) {
+            if (held.remove(name)) {
+                log.info("Lost scheduler lock {}", name);
+            }
+            return false;
+        }
+    }
+
+    public boolean isHeld(String name) {
+        return held.contains(name);
+    }
+
+    public void release(String name) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(name).and("owner").is(owner)), COLLECTION);
+        held.remove(name);
+    }
+
+    // Hand leases over immediately on a clean shutdown instead of waiting for them to expire
+    @PreDestroy
+    public void releaseAll() {
+        for (String name : held) {
+            try {
+                release(name);
+            } catch (Exception e) {
+                log.warn("Failed to release scheduler lock {}: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.roadside.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roadside.dto.ApiResponse;
+import com.roadside.dto.ShopPin;
+import com.roadside.model.MechanicShop;
+
+/**
+ * Pre-serialized "all shops" responses, rebuilt only when the shop index changes.
+ * ETags are content hashes so they agree across replicas and restarts.
+ */
+@Service
+public class ShopCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopCatalogService.class);
+
+    private final ShopIndexService shopIndexService;
+    private final ShopSearchService shopSearchService;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public ShopCatalogService(ShopIndexService shopIndexService, ShopSearchService shopSearchService, ObjectMapper objectMapper) {
+        this.shopIndexService = shopIndexService;
+        this.shopSearchService = shopSearchService;
+        this.objectMapper = objectMapper;
+    }
+
+    public CatalogPayload getCatalog(boolean fullView) {
+        if (!shopIndexService.isReady()) {
+            // Nothing to version against yet - render straight from Mongo without caching
+            return fullView
+                ? render(shopSearchService.findAll())
+                : render(shopSearchService.findAllPins());
+        }
+
+        Snapshot current = snapshot;
+        if (current == null || current.version != shopIndexService.getVersion()) {
+            current = rebuild();
+        }
+        return fullView ? current.full : current.pins;
+    }
+
+    private synchronized Snapshot rebuild() {
+        long version = shopIndexService.getVersion();
+        Snapshot current = snapshot;
+        if (current != null && current.version == version) {
+            return current;
+        }
+
+        List<MechanicShop> shops = shopIndexService.allShops();
+        List<ShopPin> pins = shops.stream().map(ShopPin::from).collect(Collectors.toList());
+        Snapshot fresh = new Snapshot(version, render(pins), render(shops));
+        snapshot = fresh;
+        log.debug("Shop catalog rebuilt at version {} ({} shops)", version, shops.size());
+        return fresh;
+    }
+
+    private CatalogPayload render(List<?> shops) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.success(shops));
+            return new CatalogPayload(body, etagOf(body));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize shop catalog", e);
+        }
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final CatalogPayload pins;
+        private final CatalogPayload full;
+
+        Snapshot(long version, CatalogPayload pins, CatalogPayload full) {
+            this.version = version;
+            this.pins = pins;
+            this.full = full;
+        }
+    }
+
+    public static final class CatalogPayload {
+        private final byte[] body;
+        private final String etag;
+
+        CatalogPayload(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+    }
+}
@@ -0,0 +1,286 @@
+package com.roadside.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+import com.roadside.repository.MechanicShopRepository;
+import com.roadside.util.GeoUtils;
+import com.roadside.util.OpeningHours;
+import com.roadside.util.ServiceTags;
+
+/**
+ * In-memory grid index over mechanic shop locations.
+ * Loaded at startup, kept current by shop writes and refreshed periodically
+ * so that changes made by other replicas are picked up.
+ */
+@Service
+public class ShopIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopIndexService.class);
+
+    // Cell size in degrees (~5.5 km of latitude)
+    private static final double CELL_DEGREES = 0.05;
+    private static final int ROWS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int COLS = (int) Math.ceil(360 / CELL_DEGREES);
+
+    private final MechanicShopRepository mechanicShopRepository;
+    private final NearbyTileCache nearbyTileCache;
+    private final Object writeLock = new Object();
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Grid grid = new Grid();
+    private volatile boolean ready = false;
+
+    @Value("${geospatial.shop-index.enabled:true}")
+    private boolean enabled;
+
+    public ShopIndexService(MechanicShopRepository mechanicShopRepository, NearbyTileCache nearbyTileCache) {
+        this.mechanicShopRepository = mechanicShopRepository;
+        this.nearbyTileCache = nearbyTileCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        // The openNow $expr treats missing minute fields as always open; fill them first so
+        // the Mongo path and this index agree on older shops
+        try {
+            int filled = mechanicShopRepository.backfillOpeningMinutes();
+            if (filled > 0) {
+                log.info("Backfilled opening minutes on {} shops", filled);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill opening minutes: {}", e.getMessage());
+        }
+        // Service search matches serviceTags with $all, which never matches a shop without tags
+        try {
+            int tagged = mechanicShopRepository.backfillServiceTags();
+            if (tagged > 0) {
+                log.info("Backfilled service tags on {} shops", tagged);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill service tags: {}", e.getMessage());
+        }
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${geospatial.shop-index.refresh-interval-ms:300000}",
+               initialDelayString = "${geospatial.shop-index.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (ready) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            synchronized (writeLock) {
+                Grid fresh = new Grid();
+                for (MechanicShop shop : mechanicShopRepository.findAll()) {
+                    fresh.put(snapshot(shop));
+                }
+                grid = fresh;
+                ready = true;
+                version.incrementAndGet();
+                nearbyTileCache.clear();
+                log.info("Shop index loaded with {} shops", fresh.shopsById.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to load shop index: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // Bumped on every change to the indexed shops, including periodic reloads
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Every indexed shop (with or without a location), ordered by id
+    public List<MechanicShop> allShops() {
+        List<MechanicShop> shops = new ArrayList<>();
+        for (MechanicShop shop : grid.shopsById.values()) {
+            shops.add(snapshot(shop));
+        }
+        shops.sort(Comparator.comparing(MechanicShop::getId));
+        return shops;
+    }
+
+    public void upsert(MechanicShop shop) {
+        if (shop == null || shop.getId() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            MechanicShop previous = grid.remove(shop.getId());
+            grid.put(snapshot(shop));
+            version.incrementAndGet();
+            // Only tiles covering the old or new position are affected
+            if (previous != null) {
+                nearbyTileCache.invalidate(previous.getLocation());
+            }
+            nearbyTileCache.invalidate(shop.getLocation());
+        }
+    }
+
+    public void remove(String shopId) {
+        if (shopId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            MechanicShop previous = grid.remove(shopId);
+            version.incrementAndGet();
+            if (previous != null) {
+                nearbyTileCache.invalidate(previous.getLocation());
+            }
+        }
+    }
+
+    /**
+     * Shops within radiusMeters of the given point, nearest first, with distance set.
+     * Returned shops are copies and may be modified by the caller.
+     */
+    public List<MechanicShop> findNearby(ShopSearchCriteria criteria) {
+        Grid current = grid;
+        double latitude = criteria.getLatitude();
+        double longitude = criteria.getLongitude();
+        double radiusMeters = criteria.getRadiusMeters();
+        int nowMinute = criteria.isOpenNow() ? OpeningHours.currentMinuteOfDay() : OpeningHours.UNKNOWN;
+        List<MechanicShop> results = new ArrayList<>();
+
+        int minRow = row(latitude - radiusMeters / GeoUtils.METERS_PER_DEGREE);
+        int maxRow = row(latitude + radiusMeters / GeoUtils.METERS_PER_DEGREE);
+
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lngDelta = cosLat < 1e-6 ? 180 : radiusMeters / (GeoUtils.METERS_PER_DEGREE * cosLat);
+        int colSpan = lngDelta >= 180 ? COLS : (int) Math.ceil(lngDelta / CELL_DEGREES) * 2 + 1;
+        int firstCol = lngDelta >= 180 ? 0 : col(longitude - lngDelta);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int i = 0; i < Math.min(colSpan, COLS); i++) {
+                Set<String> ids = current.cells.get(key(r, Math.floorMod(firstCol + i, COLS)));
+                if (ids == null) {
+                    continue;
+                }
+                for (String id : ids) {
+                    MechanicShop shop = current.shopsById.get(id);
+                    if (shop == null || shop.getLocation() == null || !matches(shop, criteria, nowMinute)) {
+                        continue;
+                    }
+                    double distance = GeoUtils.distanceMeters(latitude, longitude,
+                            shop.getLocation().getY(), shop.getLocation().getX());
+                    if (distance <= radiusMeters && distance >= criteria.getMinRadiusMeters()) {
+                        MechanicShop copy = snapshot(shop);
+                        copy.setDistance(distance);
+                        results.add(copy);
+                    }
+                }
+            }
+        }
+
+        results.sort(Comparator.comparingDouble(MechanicShop::getDistance));
+        return results;
+    }
+
+    private boolean matches(MechanicShop shop, ShopSearchCriteria criteria, int nowMinute) {
+        if (!criteria.isIncludeUnavailable() && !Boolean.TRUE.equals(shop.getIsAvailable())) {
+            return false;
+        }
+        List<String> shopTypes = criteria.getShopTypes();
+        if (shopTypes != null && !shopTypes.isEmpty()
+                && (shop.getShopTypes() == null || shopTypes.stream().noneMatch(shop.getShopTypes()::contains))) {
+            return false;
+        }
+        List<String> keywords = criteria.getServiceKeywords();
+        if (keywords != null && !keywords.isEmpty()
+                && (shop.getServiceTags() == null || !shop.getServiceTags().containsAll(keywords))) {
+            return false;
+        }
+        if (criteria.getMinRating() != null
+                && (shop.getRating() == null || shop.getRating() < criteria.getMinRating())) {
+            return false;
+        }
+        // Snapshots always carry parsed minutes, so this is integer comparison only
+        if (criteria.isOpenNow() && !OpeningHours.isOpen(shop.getOpenMinutes(), shop.getCloseMinutes(), nowMinute)) {
+            return false;
+        }
+        return true;
+    }
+
+    static MechanicShop snapshot(MechanicShop shop) {
+        MechanicShop copy = new MechanicShop(
+            shop.getId(), shop.getUserId(), shop.getShopName(), shop.getPhone(), shop.getLocation(),
+            shop.getAddress(), shop.getShopTypes() != null ? new ArrayList<>(shop.getShopTypes()) : null,
+            shop.getOpenTime(), shop.getCloseTime(), shop.getRating(), shop.getTotalRatings(),
+            shop.getIsAvailable(), shop.getCreatedAt(), shop.getUpdatedAt(), null, shop.getServicesOffered()
+        );
+        // Shops saved before hours/tags were derived get them computed once here
+        copy.setOpenMinutes(shop.getOpenMinutes() != null
+            ? shop.getOpenMinutes() : OpeningHours.toMinuteOfDay(shop.getOpenTime()));
+        copy.setCloseMinutes(shop.getCloseMinutes() != null
+            ? shop.getCloseMinutes() : OpeningHours.toMinuteOfDay(shop.getCloseTime()));
+        copy.setServiceTags(shop.getServiceTags() != null
+            ? new ArrayList<>(shop.getServiceTags()) : ServiceTags.fromText(shop.getServicesOffered()));
+        return copy;
+    }
+
+    private static int row(double latitude) {
+        int r = (int) Math.floor((latitude + 90) / CELL_DEGREES);
+        return Math.max(0, Math.min(ROWS - 1, r));
+    }
+
+    private static int col(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLS);
+    }
+
+    private static long key(int row, int col) {
+        return (long) row * COLS + col;
+    }
+
+    private static final class Grid {
+        private final Map<String, MechanicShop> shopsById = new ConcurrentHashMap<>();
+        private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+        void put(MechanicShop shop) {
+            shopsById.put(shop.getId(), shop);
+            if (shop.getLocation() == null) {
+                return;
+            }
+            cells.computeIfAbsent(cellOf(shop), k -> ConcurrentHashMap.newKeySet()).add(shop.getId());
+        }
+
+        MechanicShop remove(String shopId) {
+            MechanicShop existing = shopsById.remove(shopId);
+            if (existing != null && existing.getLocation() != null) {
+                Set<String> ids = cells.get(cellOf(existing));
+                if (ids != null) {
+                    ids.remove(shopId);
+                }
+            }
+            return existing;
+        }
+
+        private static long cellOf(MechanicShop shop) {
+            return key(row(shop.getLocation().getY()), col(shop.getLocation().getX()));
+        }
+    }
+}
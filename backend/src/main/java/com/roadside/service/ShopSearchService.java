@@ -0,0 +1,203 @@
+package com.roadside.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.roadside.dto.LocationDTO;
+import com.roadside.dto.NearbyShopPage;
+import com.roadside.dto.ShopPin;
+import com.roadside.dto.ShopSearchCriteria;
+import com.roadside.model.MechanicShop;
+import com.roadside.repository.MechanicShopRepository;
+import com.roadside.util.GeoUtils;
+
+@Service
+public class ShopSearchService {
+
+    private final ShopIndexService shopIndexService;
+    private final MechanicShopRepository mechanicShopRepository;
+    private final NearbyTileCache nearbyTileCache;
+
+    @Value("${geospatial.adaptive.initial-radius:2000}")
+    private double initialRadius;
+
+    @Value("${geospatial.adaptive.default-count:10}")
+    private int defaultNearestCount;
+
+    @Value("${geospatial.max-radius}")
+    private double maxRadius;
+
+    @Value("${geospatial.batch.parallel-threshold:64}")
+    private int batchParallelThreshold;
+
+    public ShopSearchService(ShopIndexService shopIndexService, MechanicShopRepository mechanicShopRepository,
+                             NearbyTileCache nearbyTileCache) {
+        this.shopIndexService = shopIndexService;
+        this.mechanicShopRepository = mechanicShopRepository;
+        this.nearbyTileCache = nearbyTileCache;
+    }
+
+    // Nearest first, with distance (meters) populated
+    public List<MechanicShop> findNearby(ShopSearchCriteria criteria) {
+        return nearbyTileCache.findNearby("full", criteria, this::findNearbyUncached);
+    }
+
+    private List<MechanicShop> findNearbyUncached(ShopSearchCriteria criteria) {
+        if (shopIndexService.isReady()) {
+            return shopIndexService.findNearby(criteria);
+        }
+
+        // Index not loaded yet (or disabled) - fall back to Mongo, which computes distance and order
+        return mechanicShopRepository.findNearbyWithDistance(criteria);
+    }
+
+    public List<ShopPin> findNearbyPins(ShopSearchCriteria criteria) {
+        List<MechanicShop> shops = nearbyTileCache.findNearby("pin", criteria, c -> shopIndexService.isReady()
+            ? shopIndexService.findNearby(c)
+            : mechanicShopRepository.findNearbyPins(c));
+        return shops.stream().map(ShopPin::from).collect(Collectors.toList());
+    }
+
+    /**
+     * Adaptive search: starts at the initial radius and doubles it until at least k shops
+     * are found or geospatial.max-radius is reached. Each step only searches the new ring
+     * (minRadius = previous radius), so earlier results are kept rather than re-fetched.
+     * Returns the k nearest.
+     */
+    public List<MechanicShop> findNearest(ShopSearchCriteria criteria, int k) {
+        return findNearest(criteria, k, this::findNearby);
+    }
+
+    private List<MechanicShop> findNearest(ShopSearchCriteria criteria, int k,
+                                           Function<ShopSearchCriteria, List<MechanicShop>> source) {
+        Map<String, MechanicShop> found = new LinkedHashMap<>();
+        double inner = 0;
+        double outer = Math.min(initialRadius, maxRadius);
+
+        while (true) {
+            ShopSearchCriteria ring = criteria.withArea(criteria.getLatitude(), criteria.getLongitude(), outer);
+            ring.setMinRadiusMeters(inner);
+            for (MechanicShop shop : source.apply(ring)) {
+                found.putIfAbsent(shop.getId(), shop);
+            }
+            if (found.size() >= k || outer >= maxRadius) {
+                break;
+            }
+            inner = outer;
+            outer = Math.min(outer * 2, maxRadius);
+        }
+
+        return found.values().stream()
+            .sorted(Comparator.comparingDouble(MechanicShop::getDistance))
+            .limit(k)
+            .collect(Collectors.toList());
+    }
+
+    public List<ShopPin> findNearestPins(ShopSearchCriteria criteria, int k) {
+        return findNearest(criteria, k).stream().map(ShopPin::from).collect(Collectors.toList());
+    }
+
+    /**
+     * k nearest shops for each point, results in the same order as the points.
+     * With the index loaded every point is answered in memory (bypassing the tile cache, which
+     * scattered fleet positions would only churn); otherwise one $geoWithin query fetches the
+     * candidates around all points and they are ranked per point locally.
+     * Large batches are evaluated in parallel.
+     */
+    public List<List<MechanicShop>> findNearestBatch(List<LocationDTO> points, ShopSearchCriteria filters, int k) {
+        Function<LocationDTO, List<MechanicShop>> perPoint;
+        if (shopIndexService.isReady()) {
+            perPoint = point -> findNearest(filters.withArea(point.getLatitude(), point.getLongitude(), maxRadius),
+                k, shopIndexService::findNearby);
+        } else {
+            List<MechanicShop> candidates = mechanicShopRepository.findWithinAny(filters, points, maxRadius);
+            perPoint = point -> rankByDistance(candidates, point, k);
+        }
+
+        Stream<LocationDTO> stream = points.size() >= batchParallelThreshold ? points.parallelStream() : points.stream();
+        return stream.map(perPoint).collect(Collectors.toList());
+    }
+
+    private List<MechanicShop> rankByDistance(List<MechanicShop> candidates, LocationDTO point, int k) {
+        List<MechanicShop> ranked = new ArrayList<>();
+        for (MechanicShop shop : candidates) {
+            if (shop.getLocation() == null) {
+                continue;
+            }
+            double distance = GeoUtils.distanceMeters(point.getLatitude(), point.getLongitude(),
+                    shop.getLocation().getY(), shop.getLocation().getX());
+            if (distance <= maxRadius) {
+                // Candidates are shared between points, so each point gets its own copies
+                MechanicShop copy = ShopIndexService.snapshot(shop);
+                copy.setDistance(distance);
+                ranked.add(copy);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(MechanicShop::getDistance));
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    public int getDefaultNearestCount() {
+        return defaultNearestCount;
+    }
+
+    public List<MechanicShop> findAll() {
+        return mechanicShopRepository.findAll();
+    }
+
+    public List<ShopPin> findAllPins() {
+        return mechanicShopRepository.findAllPins().stream().map(ShopPin::from).collect(Collectors.toList());
+    }
+
+    // Cursor-paged variant: each page is a single $geoNear round trip resuming after the previous page
+    public NearbyShopPage findNearbyPage(ShopSearchCriteria criteria, int limit, String cursor) {
+        Double afterDistance = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decodeCursor(cursor);
+            afterDistance = Double.valueOf(parts[0]);
+            afterId = parts[1];
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<MechanicShop> shops = mechanicShopRepository.findNearbyPage(criteria, afterDistance, afterId, limit + 1);
+
+        String nextCursor = null;
+        if (shops.size() > limit) {
+            shops = shops.subList(0, limit);
+            MechanicShop last = shops.get(limit - 1);
+            nextCursor = encodeCursor(last.getDistance(), last.getId());
+        }
+        return new NearbyShopPage(shops, nextCursor);
+    }
+
+    static String encodeCursor(double distance, String id) {
+        String raw = distance + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Double.parseDouble(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
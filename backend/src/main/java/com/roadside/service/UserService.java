@@ -19,20 +19,23 @@ public class UserService {
     private final MechanicShopRepository mechanicShopRepository;
     private final RatingRepository ratingRepository;
     private final NotificationRepository notificationRepository;
-    private final LocationTrackingRepository locationTrackingRepository;
+    private final LocationHistoryService locationHistoryService;
+    private final ShopIndexService shopIndexService;
 
     public UserService(UserRepository userRepository, 
                        RepairRequestRepository repairRequestRepository,
                        MechanicShopRepository mechanicShopRepository,
                        RatingRepository ratingRepository,
                        NotificationRepository notificationRepository,
-                       LocationTrackingRepository locationTrackingRepository) {
+                       LocationHistoryService locationHistoryService,
+                       ShopIndexService shopIndexService) {
         this.userRepository = userRepository;
         this.repairRequestRepository = repairRequestRepository;
         this.mechanicShopRepository = mechanicShopRepository;
         this.ratingRepository = ratingRepository;
         this.notificationRepository = notificationRepository;
-        this.locationTrackingRepository = locationTrackingRepository;
+        this.locationHistoryService = locationHistoryService;
+        this.shopIndexService = shopIndexService;
     }
 
     @Transactional
@@ -58,6 +61,7 @@ public class UserService {
             
             log.info("Deleting shop: {}", shop.getId());
             mechanicShopRepository.delete(shop);
+            shopIndexService.remove(shop.getId());
         });
 
         // 3. Delete Ratings made by this user
@@ -70,7 +74,7 @@ public class UserService {
 
         // 5. Delete Location Tracking
         log.info("Deleting location tracking for user: {}", userId);
-        locationTrackingRepository.deleteByMechanicUserId(userId);
+        locationHistoryService.deleteByMechanicUserId(userId);
 
         // 6. Delete User
         log.info("Deleting user: {}", userId);
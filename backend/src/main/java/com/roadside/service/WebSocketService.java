@@ -2,6 +2,10 @@ package com.roadside.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -14,9 +18,14 @@ public class WebSocketService {
     private static final Logger log = LoggerFactory.getLogger(WebSocketService.class);
     
     private final SimpMessagingTemplate messagingTemplate;
+    // Writes straight to client sessions, bypassing the broker (used for per-subscriber frames)
+    private final SimpMessagingTemplate sessionTemplate;
 
-    public WebSocketService(SimpMessagingTemplate messagingTemplate) {
+    public WebSocketService(SimpMessagingTemplate messagingTemplate,
+                            @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
         this.messagingTemplate = messagingTemplate;
+        this.sessionTemplate = new SimpMessagingTemplate(clientOutboundChannel);
+        this.sessionTemplate.setMessageConverter(messagingTemplate.getMessageConverter());
     }
     
     public void sendToUser(String userId, String eventType, Object data) {
@@ -60,4 +69,21 @@ public class WebSocketService {
             locationData
         );
     }
+    
+    // Delivers one frame to a single subscription, as if it came from the broker on that destination
+    public void sendToSubscription(String sessionId, String subscriptionId, String destination,
+                                   @org.springframework.lang.NonNull Object payload) {
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        try {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setSubscriptionId(subscriptionId);
+            headers.setLeaveMutable(true);
+            sessionTemplate.convertAndSend(destination, payload, headers.getMessageHeaders());
+        } catch (Exception e) {
+            log.error("Failed to send frame to session {}: {}", sessionId, e.getMessage());
+        }
+    }
 }
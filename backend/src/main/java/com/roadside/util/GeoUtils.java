@@ -0,0 +1,27 @@
+package com.roadside.util;
+
+// Shared geo math helpers
+
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6371000;
+
+    // Approximate length of one degree of latitude in meters
+    public static final double METERS_PER_DEGREE = 111320;
+
+    private GeoUtils() {}
+
+    // Haversine formula for distance calculation
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_METERS * c; // Distance in meters
+    }
+}
@@ -0,0 +1,65 @@
+package com.roadside.util;
+
+import java.time.LocalTime;
+
+// Shop hours as minute-of-day (0-1439) so "open now" checks never touch a formatter
+
+public final class OpeningHours {
+
+    public static final int UNKNOWN = -1;
+
+    private OpeningHours() {}
+
+    // "HH:mm" -> minute of day, UNKNOWN if missing or malformed
+    public static int toMinuteOfDay(String time) {
+        if (time == null || time.length() < 4) {
+            return UNKNOWN;
+        }
+        int colon = time.indexOf(':');
+        if (colon < 1 || colon > 2 || time.length() - colon != 3) {
+            return UNKNOWN;
+        }
+        int hours = parseDigits(time, 0, colon);
+        int minutes = parseDigits(time, colon + 1, time.length());
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return UNKNOWN;
+        }
+        return hours * 60 + minutes;
+    }
+
+    public static int currentMinuteOfDay() {
+        LocalTime now = LocalTime.now();
+        return now.getHour() * 60 + now.getMinute();
+    }
+
+    /**
+     * Unknown hours and open == close are treated as always open (the old
+     * default when parsing failed). Hours that wrap past midnight, e.g.
+     * 20:00-02:00, are open when now >= open or now < close.
+     */
+    public static boolean isOpen(int openMinute, int closeMinute, int nowMinute) {
+        if (openMinute < 0 || closeMinute < 0 || openMinute == closeMinute) {
+            return true;
+        }
+        if (openMinute < closeMinute) {
+            return nowMinute >= openMinute && nowMinute < closeMinute;
+        }
+        return nowMinute >= openMinute || nowMinute < closeMinute;
+    }
+
+    public static boolean isOpen(Integer openMinute, Integer closeMinute, int nowMinute) {
+        return isOpen(openMinute != null ? openMinute : UNKNOWN, closeMinute != null ? closeMinute : UNKNOWN, nowMinute);
+    }
+
+    private static int parseDigits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return UNKNOWN;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.roadside.util;
+
+// Track simplification (Douglas-Peucker) and Google encoded-polyline output.
+// Points are parallel lat/lng arrays so long tracks don't need an object per sample.
+
+public final class Polyline {
+
+    private Polyline() {}
+
+    /**
+     * Indices of the points to keep so that no dropped point is further than toleranceMeters
+     * from the simplified line. Iterative, so long tracks can't overflow the stack.
+     */
+    public static int[] simplify(double[] lats, double[] lngs, int count, double toleranceMeters) {
+        if (count <= 2 || toleranceMeters <= 0) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        // Local flat projection in meters around the first point; tracks are city-scale
+        double cosLat = Math.cos(Math.toRadians(lats[0]));
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+
+        int[] stack = new int[2 * count];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double maxDistance = 0;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistance(lats, lngs, cosLat, i, first, last);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0 && maxDistance > toleranceMeters) {
+                keep[farthest] = true;
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        int[] indices = new int[kept];
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                indices[next++] = i;
+            }
+        }
+        return indices;
+    }
+
+    // Google polyline algorithm, 1e-5 precision
+    public static String encode(double[] lats, double[] lngs, int[] indices) {
+        StringBuilder encoded = new StringBuilder(indices.length * 8);
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int index : indices) {
+            long lat = Math.round(lats[index] * 1e5);
+            long lng = Math.round(lngs[index] * 1e5);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lng - previousLng, encoded);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            encoded.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        encoded.append((char) (shifted + 63));
+    }
+
+    // Distance in meters from point i to the segment first-last
+    private static double segmentDistance(double[] lats, double[] lngs, double cosLat, int i, int first, int last) {
+        double ax = lngs[first] * cosLat * GeoUtils.METERS_PER_DEGREE;
+        double ay = lats[first] * GeoUtils.METERS_PER_DEGREE;
+        double bx = lngs[last] * cosLat * GeoUtils.METERS_PER_DEGREE;
+        double by = lats[last] * GeoUtils.METERS_PER_DEGREE;
+        double px = lngs[i] * cosLat * GeoUtils.METERS_PER_DEGREE;
+        double py = lats[i] * GeoUtils.METERS_PER_DEGREE;
+
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return Math.sqrt(cx * cx + cy * cy);
+    }
+}
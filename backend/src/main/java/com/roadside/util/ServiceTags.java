@@ -0,0 +1,42 @@
+package com.roadside.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Turns the free-text servicesOffered field into indexable lowercase keywords
+
+public final class ServiceTags {
+
+    private static final int MIN_LENGTH = 3;
+
+    private ServiceTags() {}
+
+    // "Engine repair, Oil change" -> [engine, repair, oil, change]
+    public static List<String> fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return new ArrayList<>();
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_LENGTH) {
+                tags.add(word);
+            }
+        }
+        return new ArrayList<>(tags);
+    }
+
+    // Normalizes user-supplied keywords the same way; null when nothing usable is left
+    public static List<String> normalize(List<String> keywords) {
+        if (keywords == null || keywords.isEmpty()) {
+            return null;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            tags.addAll(fromText(keyword));
+        }
+        return tags.isEmpty() ? null : new ArrayList<>(tags);
+    }
+}
@@ -0,0 +1,43 @@
+package com.roadside.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+class LocationSampleTest {
+
+    @Test
+    void roundTripsThroughLocationTracking() {
+        LocalDateTime at = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+        LocationTracking tracking = new LocationTracking("65f0c1a2b3c4d5e6f7a8b9c0", "req-1", "mech-1",
+                new GeoJsonPoint(77.6, 12.9), at, 42.0, 90.0);
+
+        LocationSample sample = LocationSample.from(tracking);
+        assertEquals("req-1", sample.getMeta().getRequestId());
+        assertEquals("mech-1", sample.getMeta().getMechanicUserId());
+
+        LocationTracking back = sample.toTracking();
+        assertEquals(tracking.getId(), back.getId());
+        assertEquals(tracking.getRequestId(), back.getRequestId());
+        assertEquals(tracking.getMechanicUserId(), back.getMechanicUserId());
+        assertEquals(tracking.getLocation(), back.getLocation());
+        assertEquals(at, back.getTimestamp());
+        assertEquals(42.0, back.getSpeed());
+        assertEquals(90.0, back.getHeading());
+    }
+
+    @Test
+    void keepsSourceIdForMigrationAndNoneForNewPings() {
+        LocationTracking migrated = new LocationTracking("65f0c1a2b3c4d5e6f7a8b9c0", "req-1", "mech-1",
+                new GeoJsonPoint(77.6, 12.9), LocalDateTime.now(), null, null);
+        assertEquals("65f0c1a2b3c4d5e6f7a8b9c0", LocationSample.from(migrated).getId());
+
+        LocationTracking ping = new LocationTracking(null, "req-1", "mech-1",
+                new GeoJsonPoint(77.6, 12.9), LocalDateTime.now(), null, null);
+        assertNull(LocationSample.from(ping).getId());
+    }
+}
@@ -0,0 +1,57 @@
+package com.roadside.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+class RequestStatusTest {
+
+    @Test
+    void pendingStatusesCanBeClaimedRejectedCancelledOrExpired() {
+        for (RequestStatus pending : EnumSet.of(RequestStatus.PENDING, RequestStatus.SOS_PENDING)) {
+            assertEquals(EnumSet.of(RequestStatus.ACCEPTED, RequestStatus.REJECTED, RequestStatus.CANCELLED, RequestStatus.EXPIRED),
+                    pending.allowedNext());
+        }
+    }
+
+    @Test
+    void acceptedJobsMoveForwardOnly() {
+        assertTrue(RequestStatus.ACCEPTED.canTransitionTo(RequestStatus.IN_PROGRESS));
+        assertTrue(RequestStatus.ACCEPTED.canTransitionTo(RequestStatus.COMPLETED));
+        assertTrue(RequestStatus.IN_PROGRESS.canTransitionTo(RequestStatus.COMPLETED));
+        assertFalse(RequestStatus.ACCEPTED.canTransitionTo(RequestStatus.PENDING));
+        assertFalse(RequestStatus.IN_PROGRESS.canTransitionTo(RequestStatus.ACCEPTED));
+        assertFalse(RequestStatus.ACCEPTED.canTransitionTo(RequestStatus.EXPIRED));
+    }
+
+    @Test
+    void terminalStatusesAllowNothing() {
+        for (RequestStatus status : EnumSet.of(RequestStatus.COMPLETED, RequestStatus.REJECTED,
+                RequestStatus.CANCELLED, RequestStatus.EXPIRED)) {
+            assertTrue(status.isTerminal(), status.name());
+            assertTrue(status.allowedNext().isEmpty(), status.name());
+        }
+        assertFalse(RequestStatus.PENDING.isTerminal());
+        assertFalse(RequestStatus.IN_PROGRESS.isTerminal());
+    }
+
+    @Test
+    void allowedFromIsTheInverseOfAllowedNext() {
+        assertEquals(EnumSet.of(RequestStatus.PENDING, RequestStatus.SOS_PENDING), RequestStatus.ACCEPTED.allowedFrom());
+        assertEquals(EnumSet.of(RequestStatus.PENDING, RequestStatus.SOS_PENDING, RequestStatus.ACCEPTED, RequestStatus.IN_PROGRESS),
+                RequestStatus.CANCELLED.allowedFrom());
+        assertTrue(RequestStatus.PENDING.allowedFrom().isEmpty());
+    }
+
+    @Test
+    void parsesNamesLeniently() {
+        assertEquals(RequestStatus.IN_PROGRESS, RequestStatus.from(" in_progress "));
+        assertThrows(RuntimeException.class, () -> RequestStatus.from("DONE"));
+        assertThrows(RuntimeException.class, () -> RequestStatus.from(null));
+    }
+}
@@ -0,0 +1,44 @@
+package com.roadside.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class ShopSearchCursorTest {
+
+    @Test
+    void roundTripsDistanceAndId() {
+        String cursor = ShopSearchService.encodeCursor(1234.5678, "65f0c1a2b3c4d5e6f7a8b9c0");
+        assertArrayEquals(new String[] {"1234.5678", "65f0c1a2b3c4d5e6f7a8b9c0"}, ShopSearchService.decodeCursor(cursor));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = ShopSearchService.encodeCursor(0.0, "??>>~~");
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), cursor);
+        assertArrayEquals(new String[] {"0.0", "??>>~~"}, ShopSearchService.decodeCursor(cursor));
+    }
+
+    @Test
+    void onlyTheFirstColonSeparates() {
+        String cursor = ShopSearchService.encodeCursor(10, "a:b");
+        assertArrayEquals(new String[] {"10.0", "a:b"}, ShopSearchService.decodeCursor(cursor));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> ShopSearchService.decodeCursor("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ShopSearchService.decodeCursor(encode("no-separator")));
+        assertThrows(IllegalArgumentException.class, () -> ShopSearchService.decodeCursor(encode("12.5:")));
+        assertThrows(IllegalArgumentException.class, () -> ShopSearchService.decodeCursor(encode("far:abc")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
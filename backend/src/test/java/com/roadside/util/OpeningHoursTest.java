@@ -0,0 +1,59 @@
+package com.roadside.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class OpeningHoursTest {
+
+    @Test
+    void parsesMinuteOfDay() {
+        assertEquals(0, OpeningHours.toMinuteOfDay("00:00"));
+        assertEquals(9 * 60 + 30, OpeningHours.toMinuteOfDay("09:30"));
+        assertEquals(9 * 60 + 30, OpeningHours.toMinuteOfDay("9:30"));
+        assertEquals(23 * 60 + 59, OpeningHours.toMinuteOfDay("23:59"));
+    }
+
+    @Test
+    void malformedTimesAreUnknown() {
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay(null));
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay(""));
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay("24:00"));
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay("12:60"));
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay("12:3"));
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay("ab:cd"));
+        assertEquals(OpeningHours.UNKNOWN, OpeningHours.toMinuteOfDay("9am"));
+    }
+
+    @Test
+    void sameDayHoursIncludeOpenAndExcludeClose() {
+        int open = 9 * 60;
+        int close = 18 * 60;
+        assertFalse(OpeningHours.isOpen(open, close, open - 1));
+        assertTrue(OpeningHours.isOpen(open, close, open));
+        assertTrue(OpeningHours.isOpen(open, close, close - 1));
+        assertFalse(OpeningHours.isOpen(open, close, close));
+    }
+
+    @Test
+    void hoursWrappingPastMidnight() {
+        int open = 20 * 60;
+        int close = 2 * 60;
+        assertTrue(OpeningHours.isOpen(open, close, 23 * 60));
+        assertTrue(OpeningHours.isOpen(open, close, 0));
+        assertTrue(OpeningHours.isOpen(open, close, close - 1));
+        assertFalse(OpeningHours.isOpen(open, close, close));
+        assertFalse(OpeningHours.isOpen(open, close, 12 * 60));
+        assertTrue(OpeningHours.isOpen(open, close, open));
+    }
+
+    @Test
+    void unknownOrEqualHoursAreAlwaysOpen() {
+        assertTrue(OpeningHours.isOpen(OpeningHours.UNKNOWN, 18 * 60, 3 * 60));
+        assertTrue(OpeningHours.isOpen(9 * 60, OpeningHours.UNKNOWN, 3 * 60));
+        assertTrue(OpeningHours.isOpen(9 * 60, 9 * 60, 3 * 60));
+        assertTrue(OpeningHours.isOpen((Integer) null, null, 3 * 60));
+    }
+}
@@ -0,0 +1,73 @@
+package com.roadside.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PolylineTest {
+
+    @Test
+    void encodesGoogleReferenceExample() {
+        double[] lats = {38.5, 40.7, 43.252};
+        double[] lngs = {-120.2, -120.95, -126.453};
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", Polyline.encode(lats, lngs, new int[] {0, 1, 2}));
+    }
+
+    @Test
+    void encodesOnlyTheGivenIndices() {
+        double[] lats = {38.5, 0, 40.7, 0, 43.252};
+        double[] lngs = {-120.2, 0, -120.95, 0, -126.453};
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", Polyline.encode(lats, lngs, new int[] {0, 2, 4}));
+        assertEquals("", Polyline.encode(lats, lngs, new int[0]));
+    }
+
+    @Test
+    void dropsPointsWithinToleranceOfAStraightLine() {
+        // Due north, ~11 m apart, each nudged ~1 m east or west
+        int count = 100;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = 12.9 + i * 0.0001;
+            lngs[i] = 77.6 + (i % 2 == 0 ? 0.00001 : -0.00001);
+        }
+        assertArrayEquals(new int[] {0, count - 1}, Polyline.simplify(lats, lngs, count, 5));
+    }
+
+    @Test
+    void keepsCorners() {
+        // North for ~1 km, then east for ~1 km
+        double[] lats = {12.90, 12.905, 12.91, 12.91, 12.91};
+        double[] lngs = {77.60, 77.60, 77.60, 77.605, 77.61};
+        assertArrayEquals(new int[] {0, 2, 4}, Polyline.simplify(lats, lngs, 5, 10));
+    }
+
+    @Test
+    void zeroToleranceOrShortTracksKeepEveryPoint() {
+        double[] lats = {1, 2, 3, 4};
+        double[] lngs = {1, 2, 3, 4};
+        assertArrayEquals(new int[] {0, 1, 2, 3}, Polyline.simplify(lats, lngs, 4, 0));
+        assertArrayEquals(new int[] {0, 1}, Polyline.simplify(lats, lngs, 2, 50));
+        assertArrayEquals(new int[0], Polyline.simplify(lats, lngs, 0, 50));
+    }
+
+    @Test
+    void longTracksDoNotOverflowAndStayOrdered() {
+        int count = 200_000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = 12.9 + i * 0.00001;
+            lngs[i] = 77.6 + Math.sin(i / 500.0) * 0.001;
+        }
+        int[] kept = Polyline.simplify(lats, lngs, count, 10);
+        assertEquals(0, kept[0]);
+        assertEquals(count - 1, kept[kept.length - 1]);
+        assertTrue(kept.length < count / 100, "kept " + kept.length);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.roadside.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ServiceTagsTest {
+
+    @Test
+    void splitsLowercasesAndDeduplicatesInOrder() {
+        assertEquals(List.of("engine", "repair", "oil", "change"),
+                ServiceTags.fromText("Engine repair, Oil change; ENGINE"));
+    }
+
+    @Test
+    void dropsShortWordsAndPunctuation() {
+        assertEquals(List.of("tyre", "puncture", "24x7"), ServiceTags.fromText("AC & tyre/puncture - 24x7"));
+    }
+
+    @Test
+    void keepsNonAsciiLetters() {
+        assertEquals(List.of("réparation", "vélo"), ServiceTags.fromText("Réparation de vélo"));
+    }
+
+    @Test
+    void blankTextHasNoTags() {
+        assertTrue(ServiceTags.fromText(null).isEmpty());
+        assertTrue(ServiceTags.fromText("   ").isEmpty());
+    }
+
+    @Test
+    void normalizesKeywordsLikeShopText() {
+        assertEquals(List.of("oil", "change", "brakes"), ServiceTags.normalize(Arrays.asList("Oil change", "oil", "BRAKES")));
+    }
+
+    @Test
+    void normalizeReturnsNullWhenNothingUsable() {
+        assertNull(ServiceTags.normalize(null));
+        assertNull(ServiceTags.normalize(List.of()));
+        assertNull(ServiceTags.normalize(List.of("ac", " ")));
+    }
+}
@@ -0,0 +1,21 @@
+import * as React from "react";
+
+// One Idempotency-Key per submit: retrying the same payload reuses it, so the server returns the
+// request it already created; a changed payload (or reset() after success) gets a fresh key
+export function useIdempotencyKey() {
+  const current = React.useRef<{ key: string; body: string } | null>(null);
+
+  const keyFor = React.useCallback((payload: unknown) => {
+    const body = JSON.stringify(payload);
+    if (!current.current || current.current.body !== body) {
+      current.current = { key: crypto.randomUUID(), body };
+    }
+    return current.current.key;
+  }, []);
+
+  const reset = React.useCallback(() => {
+    current.current = null;
+  }, []);
+
+  return { keyFor, reset };
+}
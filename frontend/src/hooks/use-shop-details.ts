@@ -0,0 +1,19 @@
+import * as React from "react";
+import { mechanicsApi, Mechanic } from "@/lib/api";
+
+// Map markers only carry pin fields; full shop details are fetched once per shop when a marker is opened
+export function useShopDetails() {
+  const [details, setDetails] = React.useState<Record<string, Mechanic>>({});
+  const requested = React.useRef(new Set<string>());
+
+  const load = React.useCallback((id: string) => {
+    if (!id || requested.current.has(id)) return;
+    requested.current.add(id);
+    mechanicsApi
+      .getById(id)
+      .then((shop) => setDetails((prev) => ({ ...prev, [id]: shop })))
+      .catch(() => requested.current.delete(id));
+  }, []);
+
+  return { details, load };
+}
@@ -71,6 +71,9 @@ export interface Mechanic {
   isAvailable: boolean;
   servicesOffered?: string;
   distance?: number;
+  // Pin view returns flat coordinates instead of location
+  latitude?: number;
+  longitude?: number;
 }
 
 export interface RepairRequest {
@@ -109,17 +112,21 @@ export interface UserProfile {
 }
 
 export const mechanicsApi = {
+  // Map pins by default (id, name, lat/lng, rating, availability, types, distance);
+  // pass view 'full' only where the page renders address, phone or hours
   getNearby: async (
     latitude: number,
     longitude: number,
     radiusKm: number = 10,
     vehicleType?: string,
-    includeUnavailable: boolean = false
+    includeUnavailable: boolean = false,
+    view: 'pin' | 'full' = 'pin'
   ) => {
     const params = new URLSearchParams({
       latitude: latitude.toString(),
       longitude: longitude.toString(),
       radiusKm: radiusKm.toString(),
+      view,
     });
     if (vehicleType) params.append('vehicleType', vehicleType);
     if (includeUnavailable) params.append('includeUnavailable', 'true');
@@ -133,15 +140,25 @@ export const mechanicsApi = {
     return response.data.data;
   },
 
-  getAll: async () => {
-    const response = await api.get<{success: boolean; data: Mechanic[]}>(`/mechanics/all`);
+  getAll: async (view: 'pin' | 'full' = 'pin') => {
+    const response = await api.get<{success: boolean; data: Mechanic[]}>(`/mechanics/all?view=${view}`);
     return response.data.data;
   },
 };
 
 export const repairRequestsApi = {
-  create: async (request: any) => {
-    const response = await api.post('/requests', request);
+  // Reuse the same key when retrying a submit so the backend doesn't create a duplicate request
+  create: async (request: any, idempotencyKey?: string) => {
+    const response = await api.post('/requests', request, {
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined,
+    });
+    return response.data;
+  },
+
+  createBroadcast: async (request: any, idempotencyKey?: string) => {
+    const response = await api.post('/requests/broadcast', request, {
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined,
+    });
     return response.data;
   },
   
@@ -149,6 +166,12 @@ export const repairRequestsApi = {
     const response = await api.get<{success: boolean; data: RepairRequest[]}>('/requests/my-requests');
     return response.data.data;
   },
+
+  // Simplified track as a Google encoded polyline; tolerance in meters
+  getRoute: async (requestId: string, tolerance?: number) => {
+    const response = await api.get(`/requests/${requestId}/route`, { params: { tolerance } });
+    return response.data.data;
+  },
 };
 
 export const mechanicApi = {
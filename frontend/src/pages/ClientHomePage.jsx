@@ -27,10 +27,12 @@ const ClientHomePage = () => {
   // Fetch logic only for manual actions or filter changes
   const fetchNearbyShops = async (loc, showAllShops = false) => {
     try {
-      const params = showAllShops ? {} : {
+      // Full view: the cards below show hours and rating counts
+      const params = showAllShops ? { view: 'full' } : {
         lat: loc.latitude,
         lng: loc.longitude,
         radius: 20000,
+        view: 'full',
       };
 
       if (filter) {
@@ -9,6 +9,7 @@ import { Input } from '@/components/ui/input';
 import { Textarea } from '@/components/ui/textarea';
 import { Label } from '@/components/ui/label';
 import { useToast } from '@/hooks/use-toast';
+import { useIdempotencyKey } from '@/hooks/use-idempotency-key';
 import {
   Car,
   Bike,
@@ -35,6 +36,7 @@ const CreateRequest: React.FC = () => {
   const { user } = useAuth();
   const navigate = useNavigate();
   const { toast } = useToast();
+  const idempotencyKey = useIdempotencyKey();
 
   const handleAISuggestion = (suggestion: string) => {
     setRepairGuess(suggestion);
@@ -110,7 +112,9 @@ const CreateRequest: React.FC = () => {
         } as any,
       };
 
-      await repairRequestsApi.create(request);
+      // Same key on retry, so a resubmitted SOS doesn't alert every shop again
+      await repairRequestsApi.create(request, idempotencyKey.keyFor(request));
+      idempotencyKey.reset();
 
       toast({
         title: requestType === 'SOS' ? '🚨 SOS Request Sent!' : '✅ Request Submitted!',
@@ -4,6 +4,7 @@ import { useSelector } from 'react-redux';
 import api from '../services/api';
 import { ArrowLeft, Car, Bike, Send, Loader } from 'lucide-react';
 import { getCurrentLocation } from '../services/geolocation';
+import { useIdempotencyKey } from '@/hooks/use-idempotency-key';
 
 const CreateRequestPage = () => {
   const navigate = useNavigate();
@@ -16,6 +17,7 @@ const CreateRequestPage = () => {
     aiSuggestion: '',
   });
   const [loading, setLoading] = useState(false);
+  const idempotencyKey = useIdempotencyKey();
   const [error, setError] = useState('');
 
   const handleSubmit = async (e) => {
@@ -39,9 +41,12 @@ const CreateRequestPage = () => {
         images: [],
       };
 
-      const response = await api.post('/client/create-request', requestData);
+      const response = await api.post('/client/create-request', requestData, {
+        headers: { 'Idempotency-Key': idempotencyKey.keyFor(requestData) },
+      });
       
       if (response.data.success) {
+        idempotencyKey.reset();
         navigate('/my-requests');
       }
     } catch (err) {
@@ -8,6 +8,7 @@ import { MapPin, Loader2, AlertCircle, RefreshCw, Search, Send, Zap } from 'luci
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
 import { useToast } from '@/hooks/use-toast';
+import { useIdempotencyKey } from '@/hooks/use-idempotency-key';
 import { useNavigate } from 'react-router-dom';
 import { isShopOpen } from '@/lib/utils';
 import { useDispatch } from 'react-redux';
@@ -29,6 +30,7 @@ const Dashboard: React.FC = () => {
 
   const dispatch = useDispatch();
   const { toast } = useToast();
+  const idempotencyKey = useIdempotencyKey();
   const navigate = useNavigate();
 
   const fetchLocation = () => {
@@ -61,7 +63,8 @@ const Dashboard: React.FC = () => {
       setIsLoading(true);
       setError(null);
       // Increased radius to 20km as per requirement
-      const data = await mechanicsApi.getNearby(lat, lng, 20); 
+      // Full view: the list shows address and opening hours
+      const data = await mechanicsApi.getNearby(lat, lng, 20, undefined, false, 'full');
       setMechanics(data);
       // Sync with Redux so MapView has data immediately
       dispatch(setNearbyShops(data));
@@ -173,8 +176,7 @@ const Dashboard: React.FC = () => {
       };
 
       if (isRequestingAll) {
-        // Send request to ALL filtered mechanics
-        // Note: Ideally backend should have a bulk endpoint, but we loop for now as per plan
+        // Send request to ALL filtered mechanics in one broadcast call
         const validMechanics = filteredMechanics
             .filter(m => m.isAvailable)
             .filter(m => isShopOpen(m.openTime, m.closeTime))
@@ -190,23 +192,26 @@ const Dashboard: React.FC = () => {
             return;
         }
 
-        const promises = validMechanics.map(m => repairRequestsApi.create({
-                ...baseRequest,
-                mechanicShopId: m.id
-            }));
-            
-        await Promise.allSettled(promises);
+        const broadcast = {
+            ...baseRequest,
+            shopIds: validMechanics.map(m => m.id)
+        };
+        const response = await repairRequestsApi.createBroadcast(broadcast, idempotencyKey.keyFor(broadcast));
+        idempotencyKey.reset();
+        const sent = response.data?.length ?? validMechanics.length;
         
         toast({
             title: 'Requests Sent',
-            description: `Sent requests to ${promises.length} mechanics. The first to accept will get the job.`,
+            description: `Sent requests to ${sent} mechanics. The first to accept will get the job.`,
         });
       } else if (selectedMechanic) {
-        // Send single request
-        await repairRequestsApi.create({
+        // Send single request; a retry after a failed attempt reuses the key so it isn't created twice
+        const request = {
             ...baseRequest,
             mechanicShopId: selectedMechanic.id
-        });
+        };
+        await repairRequestsApi.create(request, idempotencyKey.keyFor(request));
+        idempotencyKey.reset();
         
         toast({
             title: 'Request Sent',
@@ -9,6 +9,7 @@ import Navbar from '@/components/Navbar';
 import RatingStars from '@/components/RatingStars';
 import AIAssistant from '@/components/AIAssistant';
 import { mechanicsApi, Mechanic } from '@/lib/api';
+import { useShopDetails } from '@/hooks/use-shop-details';
 import { Loader2, Phone, MapPin, Navigation } from 'lucide-react';
 import { Button } from '@/components/ui/button';
 import { useToast } from '@/hooks/use-toast';
@@ -131,6 +132,9 @@ const FitBounds: React.FC<FitBoundsProps> = ({ points, padding = [50, 50], maxZo
 };
 
 const resolveLatLng = (mechanic: Mechanic): [number, number] | null => {
+  if (typeof mechanic.latitude === 'number' && typeof mechanic.longitude === 'number') {
+    return [mechanic.latitude, mechanic.longitude];
+  }
   const coords = mechanic.location?.coordinates;
   if (Array.isArray(coords) && coords.length === 2) {
     return [coords[1], coords[0]];
@@ -164,6 +168,7 @@ const MapView: React.FC = () => {
   const { toast } = useToast();
   const { nearbyShops } = useSelector((state: any) => state.shops);
   const { currentLocation } = useSelector((state: any) => state.location);
+  const { details, load: loadDetails } = useShopDetails();
 
   const [mechanics, setMechanics] = useState<Mechanic[]>([]);
   // Use global state for mechanics if available, or fetch locally if needed (though LocationTracker handles it)
@@ -387,6 +392,7 @@ const MapView: React.FC = () => {
                 .map(({ mechanic, latLng }: { mechanic: Mechanic; latLng: [number, number] }) => {
                   const [lat, lng] = latLng;
                   const isHighlighted = mechanic.id === highlightedId;
+                  const detail = details[mechanic.id] ?? (mechanic.address ? mechanic : undefined);
                   // const isNearby = nearbyMechanics.some((m) => m.id === mechanic.id); // No longer needed for icon distinction
 
                   return (
@@ -394,6 +400,7 @@ const MapView: React.FC = () => {
                       key={mechanic.id}
                       position={[lat, lng]}
                       icon={mechanicIcon}
+                      eventHandlers={{ popupopen: () => loadDetails(mechanic.id) }}
                     >
                       <Tooltip direction="top" offset={[0, -20]} opacity={1} permanent>
                         {mechanic.shopName}
@@ -405,19 +412,19 @@ const MapView: React.FC = () => {
                           </h3>
                           <div className="flex items-center gap-1 mb-2">
                             <RatingStars rating={mechanic.rating || 0} readOnly size="sm" />
-                            <span className="text-xs text-white-500">({mechanic.totalRatings || 0})</span>
+                            {detail && <span className="text-xs text-white-500">({detail.totalRatings || 0})</span>}
                           </div>
                           <div className="flex items-center gap-2 text-white-700 mb-2">
                             <MapPin className="w-4 h-4" />
-                            <span className="text-sm">{mechanic.address}</span>
+                            <span className="text-sm">{detail ? detail.address : 'Loading...'}</span>
                           </div>
                           <div className="flex items-center gap-2 text-white-700 mb-3">
                             <Phone className="w-4 h-4" />
                             <a
-                              href={`tel:${mechanic.phone}`}
+                              href={detail ? `tel:${detail.phone}` : undefined}
                               className="text-sm hover:text-primary"
                             >
-                              {mechanic.phone}
+                              {detail?.phone}
                             </a>
                           </div>
                           <button
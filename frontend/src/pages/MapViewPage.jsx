@@ -6,6 +6,7 @@ import { ArrowLeft, Wrench } from 'lucide-react';
 import { formatTime12Hour } from '@/lib/utils';
 import L from 'leaflet';
 import { getCurrentLocation } from '../services/geolocation';
+import { useShopDetails } from '@/hooks/use-shop-details';
 
 // Fix for default marker icons in Leaflet
 delete L.Icon.Default.prototype._getIconUrl;
@@ -20,6 +21,7 @@ const MapViewPage = () => {
   const { nearbyShops } = useSelector((state) => state.shops);
   const [clientLocation, setClientLocation] = useState(null);
   const [loading, setLoading] = useState(true);
+  const { details, load: loadDetails } = useShopDetails();
 
   useEffect(() => {
     const fetchLocation = async () => {
@@ -90,20 +92,24 @@ const MapViewPage = () => {
           />
 
           {/* Mechanic Markers */}
-          {nearbyShops.map((shop) => (
+          {nearbyShops.map((shop) => {
+            // Pins carry only position and rating; the rest is loaded when the popup opens
+            const detail = details[shop.id];
+            return (
             <Marker
               key={shop.id}
               position={[
-                shop.location.coordinates[1],
-                shop.location.coordinates[0],
+                shop.latitude ?? shop.location.coordinates[1],
+                shop.longitude ?? shop.location.coordinates[0],
               ]}
+              eventHandlers={{ popupopen: () => loadDetails(shop.id) }}
             >
               <Popup>
                 <div className="min-w-[200px]">
                   <h3 className="font-bold text-lg mb-2">{shop.shopName}</h3>
                   <div className="space-y-1 text-sm">
-                    <p>⭐ {shop.rating.toFixed(1)} ({shop.totalRatings} ratings)</p>
-                    <p>🕒 {formatTime12Hour ? formatTime12Hour(shop.openTime) : shop.openTime} - {formatTime12Hour ? formatTime12Hour(shop.closeTime) : shop.closeTime}</p>
+                    <p>⭐ {(shop.rating || 0).toFixed(1)}{detail && ` (${detail.totalRatings} ratings)`}</p>
+                    {detail && <p>🕒 {formatTime12Hour(detail.openTime)} - {formatTime12Hour(detail.closeTime)}</p>}
                     <p>📍 {shop.distance ? `${(shop.distance / 1000).toFixed(1)} km away` : 'N/A'}</p>
                   </div>
                   <button
@@ -115,7 +121,8 @@ const MapViewPage = () => {
                 </div>
               </Popup>
             </Marker>
-          ))}
+            );
+          })}
         </MapContainer>
       </div>
     </div>
@@ -3,6 +3,7 @@ import { useParams, useNavigate } from 'react-router-dom';
 import { mechanicsApi, Mechanic } from '@/lib/api';
 import { isShopOpen, formatTime12Hour } from '@/lib/utils';
 import { useToast } from '@/hooks/use-toast';
+import { useIdempotencyKey } from '@/hooks/use-idempotency-key';
 import { MapPin, Phone, Clock, Star, Wrench, ArrowLeft, Settings, FileText } from 'lucide-react';
 import { Button } from '@/components/ui/button';
 import { Textarea } from '@/components/ui/textarea';
@@ -19,6 +20,7 @@ export default function MechanicDetails() {
   const [isLoading, setIsLoading] = useState(true);
   const [isSubmitting, setIsSubmitting] = useState(false);
   const { toast } = useToast();
+  const idempotencyKey = useIdempotencyKey();
   const [location, setLocation] = useState<{ lat: number; lng: number } | null>(null);
   const [isLocating, setIsLocating] = useState(true);
 
@@ -111,7 +113,8 @@ export default function MechanicDetails() {
         clientId: localStorage.getItem('userId') || undefined,
       };
 
-      await repairRequestsApi.create(requestData);
+      await repairRequestsApi.create(requestData, idempotencyKey.keyFor(requestData));
+      idempotencyKey.reset();
 
       toast({
         title: 'Success',
@@ -3,6 +3,7 @@ import { MapContainer, TileLayer, Marker, Popup, useMap, Tooltip } from 'react-l
 import L from 'leaflet';
 import Navbar from '@/components/Navbar';
 import { mechanicApi, userApi, mechanicsApi, UserProfile, Mechanic } from '@/lib/api';
+import { useShopDetails } from '@/hooks/use-shop-details';
 import { Loader2, Phone, MapPin, Navigation, Clock, Car, Store, User, Crosshair } from 'lucide-react';
 import { Button } from '@/components/ui/button';
 import { useToast } from '@/hooks/use-toast';
@@ -113,6 +114,9 @@ const FitBounds: React.FC<{ points: [number, number][] }> = ({ points }) => {
 };
 
 const resolveLatLng = (mechanic: Mechanic): [number, number] | null => {
+  if (typeof mechanic.latitude === 'number' && typeof mechanic.longitude === 'number') {
+    return [mechanic.latitude, mechanic.longitude];
+  }
   const coords = mechanic.location?.coordinates;
   if (Array.isArray(coords) && coords.length === 2) {
     return [coords[1], coords[0]];
@@ -133,6 +137,7 @@ const MechanicMapView = () => {
   const [mapCenter, setMapCenter] = useState<[number, number]>([13.0827, 80.2707]); // Default Center
   const [shopName, setShopName] = useState<string>('');
   const [otherMechanics, setOtherMechanics] = useState<Mechanic[]>([]);
+  const { details, load: loadDetails } = useShopDetails();
   const [mechanicId, setMechanicId] = useState<string | null>(null);
   const { toast } = useToast();
   const otherMechanicPoints = otherMechanics
@@ -369,8 +374,9 @@ const MechanicMapView = () => {
                 .filter((item): item is { mechanic: Mechanic; latLng: [number, number] } => Array.isArray(item.latLng))
                 .map(({ mechanic, latLng }) => {
                   const [lat, lng] = latLng;
+                  const detail = details[mechanic.id];
                   return (
-                    <Marker key={mechanic.id} position={[lat, lng]} icon={otherShopIcon}>
+                    <Marker key={mechanic.id} position={[lat, lng]} icon={otherShopIcon} eventHandlers={{ popupopen: () => loadDetails(mechanic.id) }}>
                       <Tooltip direction="top" offset={[0, -40]} opacity={0.8}>
                         {mechanic.shopName}
                       </Tooltip>
@@ -381,19 +387,19 @@ const MechanicMapView = () => {
                           </h3>
                           <div className="flex items-center gap-1 mb-2">
                             <RatingStars rating={mechanic.rating || 0} readOnly size="sm" />
-                            <span className="text-xs text-white-500">({mechanic.totalRatings || 0})</span>
+                            {detail && <span className="text-xs text-white-500">({detail.totalRatings || 0})</span>}
                           </div>
                           <div className="flex items-center gap-2 text-white-700 mb-2">
                             <MapPin className="w-4 h-4" />
-                            <span className="text-sm">{mechanic.address}</span>
+                            <span className="text-sm">{detail ? detail.address : 'Loading...'}</span>
                           </div>
                           <div className="flex items-center gap-2 text-white-700 mb-3">
                             <Phone className="w-4 h-4" />
                             <a
-                              href={`tel:${mechanic.phone}`}
+                              href={detail ? `tel:${detail.phone}` : undefined}
                               className="text-sm hover:text-primary"
                             >
-                              {mechanic.phone}
+                              {detail?.phone}
                             </a>
                           </div>
                           <Button 
@@ -71,6 +71,21 @@ export default function MyRequests() {
                         variant: 'destructive'
                     });
                     fetchRequests();
+                } else if (notification.type === 'REQUEST_EXPIRED') {
+                    toast({
+                        title: 'Request Expired',
+                        description: 'No mechanic accepted your request in time.',
+                        variant: 'destructive'
+                    });
+                    fetchRequests();
+                } else if (notification.type === 'REQUEST_EXPIRED_BATCH') {
+                    // Sent by the expiry sweep: { requestIds, count }
+                    toast({
+                        title: 'Requests Expired',
+                        description: `${notification.data.count} of your requests expired without a mechanic accepting.`,
+                        variant: 'destructive'
+                    });
+                    fetchRequests();
                 } else if (notification.type === 'STATUS_UPDATE') {
                     toast({
                         title: 'Status Update',